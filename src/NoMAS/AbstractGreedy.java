@@ -24,6 +24,14 @@ public abstract class AbstractGreedy implements Algorithm {
 	 * variable that tracks elapsed time.
 	 */
 	public double time_elapsed;
+	/**
+	 * {@link BFSEngine} of each thread, computing the distances from the solutions being expanded.
+	 */
+	protected final ThreadLocal<BFSEngine> engines = new ThreadLocal<BFSEngine>() {
+		protected BFSEngine initialValue() {
+			return new BFSEngine(model);
+		}
+	};
 	
 	/**
 	 * Class constructor with base parameters
@@ -48,23 +56,17 @@ public abstract class AbstractGreedy implements Algorithm {
 	 */
 	public Solution[] run() {
 		long start_time = Utils.getTime();
-		Thread[] threads = new Thread[config.N];
 		final Solution[][] solutions = new Solution[config.N][10];
-		for(int i=0; i<config.N; i++) {
-			final int index = i;
-			threads[i] = new Thread(new Runnable() {
-				public void run() {
-					int base = Utils.getBase(config.N, index, model.n);
-					int limit = base + Utils.getJobCount(config.N, index, model.n);
-					for(int j=base; j<limit; j++) {
-						Solution solution = expand(model.vertices[j], config.k);
-						SolutionList.insert(solutions[index], solution, config.objective);
-					}	
-				}
-			});
-			threads[i].start();
-		}
-		Utils.join(threads);
+		WorkerPool.shared().run(config.N, new WorkerPool.Task() {
+			public void run(int index) {
+				int base = Utils.getBase(config.N, index, model.n);
+				int limit = base + Utils.getJobCount(config.N, index, model.n);
+				for(int j=base; j<limit; j++) {
+					Solution solution = expand(model.vertices[j], config.k);
+					SolutionList.insert(solutions[index], solution, config.objective);
+				}	
+			}
+		});
 		time_elapsed = Utils.timeElapsed(start_time);
 		return SolutionList.merge(10, config.objective, solutions);
 	}
@@ -23,6 +23,15 @@ public abstract class AbstractNoMAS implements Algorithm {
 	 * Table of partial solutions to be filled through dynamic programming.
 	 */
 	public Solution[][] W;
+	/**
+	 * Minimum degree of the vertices whose neighbors with an entry are indexed by row (see liveNeighbors(Vertex, int)).
+	 */
+	public static final int HUB_DEGREE = 64;
+	/**
+	 * For each vertex of degree at least HUB_DEGREE, and for each row of the completed layers, the neighbors whose entry is not null, as a bitset over their positions in the neighbors of the vertex.
+	 * Null for the other vertices, and when the table is not the full one or the algorithm does not use the index (see usesHubIndex()).
+	 */
+	public long[][][] hub_live;
 	/**
 	 * Number of rows of the partial solutions table. It coincides with the number of extracted color combinations on the vertexes graph.
 	 */
@@ -53,6 +62,22 @@ public abstract class AbstractNoMAS implements Algorithm {
 	 * {@link Progressbar} instance that provides a visual aid to user to understand percentage of completion of the process.
 	 */
 	public Progressbar progress;
+	/**
+	 * {@link SolutionCollector} fed with the entries of the table as they are computed, null when uniqueness is requested and the table is screened at the end of each iteration.
+	 */
+	public SolutionCollector collector;
+	/**
+	 * {@link SolutionHeap} of each thread in the collector.
+	 */
+	public SolutionHeap[] collector_heaps;
+	/**
+	 * 1 when maximizing and -1 when minimizing the normalized log-rank statistic with pruning, 0 when merges are not pruned.
+	 */
+	public int prune_sign;
+	/**
+	 * Weight of each patient multiplied by prune_sign, or 0 if negative: the most a patient can add to the objective.
+	 */
+	public double[] gain_weights;
 
 	/**
 	 * Constructor that receives input data ({@link Model} instance and configuration parameters ({@link Configuration} instance)
@@ -102,7 +127,6 @@ public abstract class AbstractNoMAS implements Algorithm {
 		for(int i=1; i<=config.k; i++) {
 			rows += Utils.choose(config.colors, i);
 		}
-		W = new Solution[rows][model.n];
 		colorset_groups = new int[config.k+1];
 		colorset_to_row = new int[(int)Math.pow(2, config.colors)];
 		row_to_colorset = new int[rows];
@@ -116,10 +140,101 @@ public abstract class AbstractNoMAS implements Algorithm {
 			colorset_to_row[sets.get(i)] = i;
 			row_to_colorset[i] = sets.get(i);
 		}
+		allocateTable();
+		collector = null;
+		if(!config.uniqueness) {
+			// Near duplicates are only rejected by a sequential scan of the whole list (see SolutionList.insertUnique())
+			collector = new SolutionCollector(config.objective, config.solutions);
+			collector_heaps = new SolutionHeap[config.N];
+			for(int i=0; i<config.N; i++) {
+				collector_heaps[i] = collector.newHeap();
+			}
+		}
+		prune_sign = 0;
+		if(config.prune && (config.objective == Model.MAX_NLR || config.objective == Model.MIN_NLR)) {
+			prune_sign = (config.objective == Model.MAX_NLR) ? 1 : -1;
+			gain_weights = new double[model.w.length];
+			for(int i=0; i<gain_weights.length; i++) {
+				gain_weights[i] = Math.max(0.0, prune_sign*model.w[i]);
+			}
+		}
 		iterations_performed = 0;
 		progress = new Progressbar(50);
 	}
 	
+	/**
+	 * Tells whether computeEntry(Vertex, int, int, int) reads the neighbors of hubs with an entry (see liveNeighbors(Vertex, int)), so that the table indexes them.
+	 * 
+	 * @return false, unless overridden.
+	 */
+	public boolean usesHubIndex() {
+		return false;
+	}
+	
+	/**
+	 * Allocates the table of partial solutions, with a column for each vertex of the network.
+	 */
+	public void allocateTable() {
+		W = new Solution[rows][model.n];
+		hub_live = null;
+		if(!usesHubIndex()) {
+			return;
+		}
+		hub_live = new long[model.n][][];
+		for(Vertex v : model.vertices) {
+			if(v.degree >= HUB_DEGREE) {
+				hub_live[v.id] = new long[rows][(v.degree+63)/64];
+			}
+		}
+	}
+	
+	/**
+	 * Returns the neighbors of a hub vertex whose entry of a row is not null, so that the hub only visits them.
+	 * The row must belong to a layer completed before the one being computed.
+	 * 
+	 * @param v The {@link Vertex}.
+	 * @param row The row of the entries of the neighbors.
+	 * @return A bitset over the positions in v.neighbors of the neighbors with an entry (bit i of word i/64), or null if v is not indexed.
+	 */
+	public long[] liveNeighbors(Vertex v, int row) {
+		return (hub_live == null || hub_live[v.id] == null) ? null : hub_live[v.id][row];
+	}
+	
+	/**
+	 * Indexes the neighbors of a hub vertex with an entry in the given rows (see liveNeighbors(Vertex, int)). 
+	 * Only the thread computing the entries of the vertex reads its index, so it builds it when the layer of the rows is completed.
+	 * 
+	 * @param v The {@link Vertex}.
+	 * @param from The first row to index.
+	 * @param to The row after the last one to index.
+	 */
+	public void indexLiveNeighbors(Vertex v, int from, int to) {
+		if(hub_live == null || hub_live[v.id] == null) {
+			return;
+		}
+		for(int r=from; r<to; r++) {
+			long[] live = hub_live[v.id][r];
+			Arrays.fill(live, 0L);
+			Solution[] row = W[r];
+			for(int i=0; i<v.neighbors.size(); i++) {
+				if(row[v.neighbors.get(i).id] != null) {
+					live[i >>> 6] |= 1L << i;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns an entry of the table of partial solutions.
+	 * 
+	 * @param row The row of the entry, i.e. the index of its colorset.
+	 * @param v The {@link Vertex} of the entry.
+	 * @return The best partial solution of the colorset rooted in the vertex, or null if there is none.
+	 */
+	public Solution entry(int row, Vertex v) {
+		return W[row][v.id];
+	}
+	
 	/**
 	 * Performs a single color coding iteration and computes the table of solutions relative to the picked configuration, collecting the best solutions.
 	 * 
@@ -129,16 +244,24 @@ public abstract class AbstractNoMAS implements Algorithm {
 	public void iterate(Random rng, Solution[] list) {
 		Graph.color(rng.nextInt(), config.colors, model);
 		clearTable();
+		if(collector != null) {
+			Solution worst = list[list.length-1];
+			collector.reset((worst == null) ? Double.NEGATIVE_INFINITY : config.objective.key(worst));
+		}
 		fillTable();
 		screenSolutions(list);
 	}
 
 	/**
-	 * Screens the entire table for the best solutions.
+	 * Inserts the best solutions of the table into the list: the ones gathered by the collector while the table was filled, or otherwise the whole table.
 	 *
 	 * @param list The list into which the best solutions are inserted as an array of {@link Solution}
 	 */
 	public void screenSolutions(Solution[] list) {
+		if(collector != null) {
+			collector.drain(list);
+			return;
+		}
 		for(Solution[] row : W) {
 			for(Solution solution : row) {
 				if(solution != null) {
@@ -182,43 +305,95 @@ public abstract class AbstractNoMAS implements Algorithm {
 	 * Fills out the entire table using dynamic programming and composing the solutions through partial solutions.
 	 */
 	public void fillTable() {
-		final CyclicBarrier barrier = new CyclicBarrier(config.N);
+		final Phaser phaser = new Phaser(config.N);
 		final int n = model.n;
 		final int[] columns = Utils.indexArray(n);
 		Utils.shuffle(columns);
 
-		Thread[] threads = new Thread[config.N];
-		for(int i=0; i<config.N; i++) {
-			final int index = i;
-			threads[i] = new Thread(new Runnable() {
-				public void run() {
-					int base = Utils.getBase(config.N, index, n);
-					int limit = base + Utils.getJobCount(config.N, index, n);
+		WorkerPool.shared().run(config.N, phaser, new WorkerPool.Task() {
+			public void run(int index) {
+				int base = Utils.getBase(config.N, index, n);
+				int limit = base + Utils.getJobCount(config.N, index, n);
+				for(int j=base; j<limit; j++) {
+					Vertex v = model.vertices[columns[j]];
+					W[v.color][v.id] = computeTrivialEntry(v);
+					finish(W[v.color][v.id], v.color, v, index);
+				}
+				Utils.synchronize(phaser);
+				for(int group=2; group<=config.k; group++) {
+					int first = colorset_groups[group-1];
+					int end = colorset_groups[group];
 					for(int j=base; j<limit; j++) {
 						Vertex v = model.vertices[columns[j]];
-						W[v.color][v.id] = computeTrivialEntry(v);
-					}
-					Utils.synchronize(barrier);
-					for(int group=2; group<=config.k; group++) {
-						int first = colorset_groups[group-1];
-						int end = colorset_groups[group];
-						for(int j=base; j<limit; j++) {
-							Vertex v = model.vertices[columns[j]];
-							if(v.degree > 0) {
-								for(int r=first; r<end; r++) {
-									W[r][v.id] = computeEntry(v, row_to_colorset[r], first-1, index);
-								}
+						if(v.degree > 0) {
+							indexLiveNeighbors(v, colorset_groups[group-2], first);
+							for(int r=first; r<end; r++) {
+								W[r][v.id] = computeEntry(v, row_to_colorset[r], first-1, index);
+								finish(W[r][v.id], r, v, index);
 							}
 						}
-						Utils.synchronize(barrier);
 					}
+					Utils.synchronize(phaser);
 				}
-			});
-			threads[i].start();
-		}
-		Utils.join(threads);
+			}
+		});
 	}
 
+	/**
+	 * Completes an entry of the table once computed: stores the gain used for pruning and offers the entry to the collector, if any.
+	 * Ties between entries are won by the higher row, which only depends on the colors of the subnetwork, as when the table was screened by row.
+	 * Each entry is also offered with its position in the table, by row and then by vertex id, which chooses among the entries of the same subnetwork.
+	 * 
+	 * @param solution The entry, possibly null.
+	 * @param row The row of the entry.
+	 * @param v The {@link Vertex} of the entry.
+	 * @param p The index of the thread.
+	 */
+	public void finish(Solution solution, int row, Vertex v, int p) {
+		if(solution != null && prune_sign != 0 && solution.x != null) {
+			solution.gain = Bitstring.dotProductWithArray(solution.x, gain_weights);
+		}
+		if(solution != null && collector != null) {
+			double key = config.objective.key(solution);
+			if(collector.admits(key)) {
+				collector.offerUnique(collector_heaps[p], solution, key, row, (long)row*model.n + v.id);
+			}
+		}
+	}
+	
+	/**
+	 * Checks whether the merge of two entries can be skipped: when pruning, if it cannot score better than the best candidate of the entry being computed or,
+	 * in the last layer, whose entries are not merged further, if it cannot enter the solutions collected so far.
+	 * The merge is first bounded by the log-rank statistic of one entry plus the gain of the other, over the possible numbers of patients of the union,
+	 * and then scored exactly from the union of the populations, without building it.
+	 * 
+	 * @param a The first entry to merge.
+	 * @param b The second entry to merge.
+	 * @param best The best candidate of the entry being computed, or null.
+	 * @param last_layer true if the entry being computed has k colors.
+	 * @return true if the merge can be skipped.
+	 */
+	public boolean prunes(Solution a, Solution b, Solution best, boolean last_layer) {
+		if(prune_sign == 0) {
+			return false;
+		}
+		double target = (best == null) ? Double.NEGATIVE_INFINITY : config.objective.key(best);
+		if(last_layer && collector != null) {
+			target = Math.max(target, collector.threshold());
+		}
+		if(target == Double.NEGATIVE_INFINITY) {
+			return false;
+		}
+		double lr = Math.min(prune_sign*a.lr + b.gain, prune_sign*b.lr + a.gain);
+		double bound = model.normalizedLogrankBound(lr, Math.max(a.m1, b.m1), Math.min(model.m, a.m1 + b.m1));
+		// The bound is compared with a tolerance for rounding, the exact score is not
+		if(bound + 1e-9*Math.abs(bound) < target) {
+			return true;
+		}
+		double lr_union = Bitstring.unionDotProduct(a.x, b.x, model.w);
+		return prune_sign*model.normalizeLogrankStatistic(lr_union, Bitstring.unionCount(a.x, b.x)) < target;
+	}
+	
 	/**
 	 * Instantiates a new {@link Solution} with a vertex of the network and based on the passed parameters
 	 * 
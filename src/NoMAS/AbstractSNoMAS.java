@@ -22,6 +22,27 @@ public abstract class AbstractSNoMAS extends AbstractNoMAS {
 	 * {@link ArrayList} of {@link ArrayList} instances that stores the scheduling of the nodes to process into queues of jobs.
 	 */
 	public ArrayList<ArrayList<Vertex>> job_queue;
+	/**
+	 * Column of each vertex in the compact table of partial solutions, -1 for the vertices out of the local search space.
+	 */
+	public int[] column;
+	/**
+	 * Vertices of the local search space (vertex_cost greater than 0), in increasing order of id, one per column of the compact table.
+	 */
+	public Vertex[] active;
+	/**
+	 * Compact table of partial solutions, by column: table[c][r] is the entry of row r for the vertex active[c].
+	 * A vertex only has the rows of the colorsets of at most vertex_cost colors, the only ones it is ever computed for. Replaces the full table W, which is not allocated.
+	 */
+	public Solution[][] table;
+	/**
+	 * Seed vertices generated for the first run, reused by the later runs (e.g. permutations) when the seed policy is fixed.
+	 */
+	private ArrayList<Vertex> fixed_seeds;
+	/**
+	 * Seed vertices from which vertex_cost was computed, so that the runs with the same seeds (e.g. permutations) reuse it.
+	 */
+	private ArrayList<Vertex> cost_seeds;
 	
 	/**
 	 * Base constructor that simply invokes the one from superclass
@@ -39,37 +60,191 @@ public abstract class AbstractSNoMAS extends AbstractNoMAS {
 	 */
 	public void initialize() {
 		ArrayList<Vertex> seeds = null;
-		if(config.seeds == null) {
-			seeds = generateSeeds();
-		}else {
+		if(config.seeds != null) {
 			seeds = config.seeds;
+		}else if(fixed_seeds != null && config.seed_policy.equals("fixed")) {
+			seeds = fixed_seeds;
+		}else {
+			seeds = SeedCache.seeds(this);
+			fixed_seeds = seeds;
+		}
+		// The costs are needed to allocate the table
+		if(!seeds.equals(cost_seeds)) {
+			vertex_cost = getVertexCost(seedDistances(seeds));
+			cost_seeds = new ArrayList<Vertex>(seeds);
 		}
 		super.initialize();
-		int[] dist = Graph.shortestPaths(model, seeds);
-		vertex_cost = getVertexCost(dist);
 		computeWorkloads();
 	}
 	
 	
+	/**
+	 * Computes the distances of the vertices from the seeds, only exploring the vertices within kprime edges of a seed.
+	 * 
+	 * @param seeds The seed vertices.
+	 * @return The distances, Integer.MAX_VALUE for the vertices farther than kprime from every seed.
+	 */
+	public int[] seedDistances(ArrayList<Vertex> seeds) {
+		BFSEngine bfs = new BFSEngine(model);
+		bfs.update(seeds, config.kprime);
+		int[] dist = new int[model.n];
+		Arrays.fill(dist, Integer.MAX_VALUE);
+		for(int i=0; i<bfs.reachedCount(); i++) {
+			Vertex v = bfs.reached(i);
+			if(bfs.distance(v) <= config.kprime) {
+				dist[v.id] = bfs.distance(v);
+			}
+		}
+		return dist;
+	}
+	
+	/**
+	 * Allocates the compact table of partial solutions, with a column for each vertex of the local search space.
+	 */
+	@Override
+	public void allocateTable() {
+		W = null;
+		column = new int[model.n];
+		int count = 0;
+		for(int i=0; i<model.n; i++) {
+			column[i] = (vertex_cost[i] > 0) ? count++ : -1;
+		}
+		active = new Vertex[count];
+		table = new Solution[count][];
+		for(int i=0; i<model.n; i++) {
+			if(column[i] >= 0) {
+				active[column[i]] = model.vertices[i];
+				table[column[i]] = new Solution[colorset_groups[Math.min(vertex_cost[i], config.k)]];
+			}
+		}
+	}
+	
+	/**
+	 *{@inheritDoc}
+	 */
+	@Override
+	public Solution entry(int row, Vertex v) {
+		int c = column[v.id];
+		if(c < 0) {
+			return null;
+		}
+		Solution[] entries = table[c];
+		return (row < entries.length) ? entries[row] : null;
+	}
+	
+	/**
+	 *{@inheritDoc}
+	 */
+	@Override
+	public void clearTable() {
+		for(Solution[] entries : table) {
+			Arrays.fill(entries, null);
+		}
+	}
+	
+	/**
+	 *{@inheritDoc}
+	 */
+	@Override
+	public void screenSolutions(Solution[] list) {
+		if(collector != null) {
+			super.screenSolutions(list);
+			return;
+		}
+		// Same order as the full table: by row, then by vertex id
+		for(int r=0; r<rows; r++) {
+			for(Solution[] entries : table) {
+				if(r < entries.length && entries[r] != null) {
+					if(config.uniqueness) {
+						SolutionList.insertUnique(list, entries[r], config.objective);
+					}else {
+						SolutionList.insert(list, entries[r], config.objective);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 *{@inheritDoc}
+	 */
+	@Override
+	public boolean isFound(Solution s) {
+		for(Solution[] entries : table) {
+			for(Solution solution : entries) {
+				if(solution != null && solution.equals(s)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
 	/**
 	 * Computes and distributes algorithm workload on the processors. 
 	 * Number of processors is passed as a parameter when configuring algorithm execution.
-	 * 
+	 * The cost of a vertex in a layer of the table is estimated as its degree times the rows it fills times the rows each of them combines.
+	 * Since the threads wait for each other at the end of every layer, vertices are assigned by class of cost (vertex_cost), from the highest, which take part in the same layers:
+	 * within a class, the vertices are assigned by decreasing degree to the thread with the lowest load in the highest layer of the class (longest processing time first).
+	 * The achieved balance is reported in the log.
 	 */
 	public void computeWorkloads() {
+		int k = config.k;
 		job_queue = new ArrayList<ArrayList<Vertex>>();
-		int[] last_assigned = new int[config.k];
 		for(int i=0; i<config.N; i++) {
 			job_queue.add(new ArrayList<Vertex>());
 		}
+		double[] layer_cost = new double[k+1];
+		for(int group=2; group<=k; group++) {
+			layer_cost[group] = (double)(colorset_groups[group]-colorset_groups[group-1])*colorset_groups[group-1];
+		}
+		ArrayList<ArrayList<Vertex>> classes = new ArrayList<ArrayList<Vertex>>();
+		for(int c=0; c<=k; c++) {
+			classes.add(new ArrayList<Vertex>());
+		}
 		for(int i=0; i<model.n; i++) {
-			int cost = vertex_cost[i];
-			if(cost > 0) {
-				int processor = last_assigned[cost-1]; // zero-indexed
-				job_queue.get(processor).add(model.vertices[i]);
-				last_assigned[cost-1] = (processor+1)%config.N;
+			if(vertex_cost[i] > 0) {
+				classes.get(Math.min(vertex_cost[i], k)).add(model.vertices[i]);
+			}
+		}
+		double[][] load = new double[config.N][k+1];
+		for(int c=k; c>=1; c--) {
+			ArrayList<Vertex> vertices = classes.get(c);
+			Collections.sort(vertices, new Comparator<Vertex>() {
+				public int compare(Vertex a, Vertex b) {
+					return (a.degree != b.degree) ? Integer.compare(b.degree, a.degree) : Integer.compare(a.id, b.id);
+				}
+			});
+			for(Vertex v : vertices) {
+				int processor = 0;
+				for(int p=1; p<config.N; p++) {
+					if(load[p][c] < load[processor][c]) {
+						processor = p;
+					}
+				}
+				job_queue.get(processor).add(v);
+				load[processor][1] += 1.0;
+				if(v.degree > 0) {
+					for(int group=2; group<=c; group++) {
+						load[processor][group] += v.degree*layer_cost[group];
+					}
+				}
 			}
 		}
+		if(model.log != null) {
+			String balance = "";
+			for(int group=1; group<=k; group++) {
+				double max = 0.0;
+				double total = 0.0;
+				for(int p=0; p<config.N; p++) {
+					max = Math.max(max, load[p][group]);
+					total += load[p][group];
+				}
+				balance += " "+((total > 0) ? Utils.round(max*config.N/total, 3) : 1.0);
+			}
+			model.log.stream.println("[SNoMAS] Estimated workload of the busiest thread over the average, per layer:"+balance);
+			model.log.stream.flush();
+		}
 	}
 	
 	/**
@@ -128,40 +303,37 @@ public abstract class AbstractSNoMAS extends AbstractNoMAS {
 	 */
 	@Override
 	public void fillTable() {
-		final CyclicBarrier barrier = new CyclicBarrier(config.N);
+		final Phaser phaser = new Phaser(config.N);
 		final int n = model.n;
 
-		Thread[] threads = new Thread[config.N];
-		for(int i=0; i<config.N; i++) {
-			final int index = i;
-			threads[i] = new Thread(new Runnable() {
-				public void run() {
-					ArrayList<Vertex> jobs = job_queue.get(index);				
+		WorkerPool.shared().run(config.N, phaser, new WorkerPool.Task() {
+			public void run(int index) {
+				ArrayList<Vertex> jobs = job_queue.get(index);				
+				for(Vertex v : jobs) {
+					if(vertex_cost[v.id] >= 1) {
+						table[column[v.id]][v.color] = computeTrivialEntry(v);
+						finish(table[column[v.id]][v.color], v.color, v, index);
+					}
+				}				
+				Utils.synchronize(phaser);				
+				for(int group=2; group<=config.k; group++) {
+					int first = colorset_groups[group-1];
+					int end = colorset_groups[group];
 					for(Vertex v : jobs) {
-						if(vertex_cost[v.id] >= 1) {
-							W[v.color][v.id] = computeTrivialEntry(v);
-						}
-					}				
-					Utils.synchronize(barrier);				
-					for(int group=2; group<=config.k; group++) {
-						int first = colorset_groups[group-1];
-						int end = colorset_groups[group];
-						for(Vertex v : jobs) {
-							if(vertex_cost[v.id] >= group) {
-								if(v.degree > 0) {
-									for(int r=first; r<end; r++) {
-										W[r][v.id] = computeEntry(v, row_to_colorset[r], first-1, index);
-									}
+						if(vertex_cost[v.id] >= group) {
+							if(v.degree > 0) {
+								Solution[] entries = table[column[v.id]];
+								for(int r=first; r<end; r++) {
+									entries[r] = computeEntry(v, row_to_colorset[r], first-1, index);
+									finish(entries[r], r, v, index);
 								}
 							}
 						}
-						Utils.synchronize(barrier);
 					}
+					Utils.synchronize(phaser);
 				}
-			});
-			threads[i].start();
-		}
-		Utils.join(threads);
+			}
+		});
 	}
 	
 	/**
@@ -169,19 +341,19 @@ public abstract class AbstractSNoMAS extends AbstractNoMAS {
 	 */
 	public Solution computeEntry(Vertex v, int T, int last, int p) {
 		Solution best = null;
+		Solution[] entries = table[column[v.id]];
+		boolean last_layer = Integer.bitCount(T) == config.k;
 		for(int rowQ=last; rowQ>=0; rowQ--) {
 			int Q = row_to_colorset[rowQ];
 			int R = Bitstring.setDifference(T, Q);
 			int rowR = colorset_to_row[R];
-			if(R == 0 || W[rowQ][v.id] == null) {
+			if(R == 0 || entries[rowQ] == null) {
 				continue;
 			}
 			for(Vertex u : v.neighbors) {
-				if(vertex_cost[u.id] <= 0) {
-					continue;
-				}
-				if(W[rowR][u.id] != null) {
-					Solution candidate = Solution.merge(W[rowQ][v.id], W[rowR][u.id], model);
+				Solution entry = entry(rowR, u);
+				if(entry != null && !prunes(entries[rowQ], entry, best, last_layer)) {
+					Solution candidate = Solution.merge(entries[rowQ], entry, model);
 					if(best == null || config.objective.compare(candidate, best) >= 0) {
 						best = candidate;
 					}
@@ -0,0 +1,224 @@
+package NoMAS;
+import java.util.*;
+
+/**
+ * Reusable breadth-first search over the network, computing the distances of the vertices from a growing set of sources.
+ * All buffers are allocated once: distances are valid only when their stamp matches the current generation, so that starting a new search costs no clearing,
+ * and the queue is a ring buffer of vertex ids. Searches are bounded in depth, and when the sources grow by some vertices the distances are
+ * lowered incrementally from the new vertices instead of being recomputed. Distances up to the current bound are exact, larger ones are only known to exceed it.
+ * An instance is not thread safe: each thread should use its own.
+ *
+ * @author Federico Altieri
+ * @author Tommy V. Hansen
+ * @author Fabio Vandin
+ *
+ */
+public class BFSEngine {
+	/**
+	 * {@link Model} containing the network.
+	 */
+	private final Model model;
+	/**
+	 * Distances of the vertices from the sources, valid when the stamp of the vertex matches the generation.
+	 */
+	private final int[] dist;
+	/**
+	 * Generation in which the distance of each vertex was set.
+	 */
+	private final int[] stamp;
+	/**
+	 * Generation in which each vertex was marked.
+	 */
+	private final int[] mark;
+	/**
+	 * Current generation of the distances.
+	 */
+	private int generation;
+	/**
+	 * Current generation of the marks.
+	 */
+	private int mark_generation;
+	/**
+	 * Ring buffer of the ids of the vertices to visit.
+	 */
+	private final int[] queue;
+	/**
+	 * Ids of the vertices reached in the current generation, in order of discovery.
+	 */
+	private final int[] reached;
+	/**
+	 * Number of vertices reached in the current generation.
+	 */
+	private int reached_count;
+	/**
+	 * Ids of the current sources, in order of insertion.
+	 */
+	private int[] sources;
+	/**
+	 * Number of current sources.
+	 */
+	private int sources_count;
+
+	/**
+	 * Constructor that allocates the buffers for the network of a model.
+	 *
+	 * @param model {@link Model} containing the network.
+	 */
+	public BFSEngine(Model model) {
+		this.model = model;
+		dist = new int[model.n];
+		stamp = new int[model.n];
+		mark = new int[model.n];
+		queue = new int[Integer.highestOneBit(Math.max(model.n, 1)) << 1];
+		reached = new int[model.n];
+		sources = new int[16];
+		generation = 1;
+		mark_generation = 1;
+		reached_count = 0;
+		sources_count = 0;
+	}
+
+	/**
+	 * Computes the distances from the given sources up to the given depth.
+	 * If the sources extend the ones of the previous call, only the new vertices are searched from.
+	 *
+	 * @param vertices {@link ArrayList} of {@link Vertex} instances used as sources.
+	 * @param bound Maximum distance to compute.
+	 */
+	public void update(ArrayList<Vertex> vertices, int bound) {
+		int common = 0;
+		if(sources_count <= vertices.size()) {
+			while(common < sources_count && sources[common] == vertices.get(common).id) {
+				common++;
+			}
+		}
+		if(common < sources_count || sources_count == 0) {
+			clear();
+			common = 0;
+		}
+		for(int i=common; i<vertices.size(); i++) {
+			add(vertices.get(i), bound);
+		}
+	}
+
+	/**
+	 * Discards the current sources and distances.
+	 */
+	public void clear() {
+		if(generation == Integer.MAX_VALUE) {
+			Arrays.fill(stamp, 0);
+			generation = 0;
+		}
+		generation++;
+		reached_count = 0;
+		sources_count = 0;
+	}
+
+	/**
+	 * Adds a source and lowers the distances of the vertices closer to it than to the previous sources, up to the given depth.
+	 * A vertex whose distance is not lowered is not expanded, since none of its neighbors can be lowered through it.
+	 *
+	 * @param v {@link Vertex} instance to add to the sources.
+	 * @param bound Maximum distance to compute.
+	 */
+	public void add(Vertex v, int bound) {
+		if(sources_count == sources.length) {
+			sources = Arrays.copyOf(sources, 2*sources.length);
+		}
+		sources[sources_count++] = v.id;
+		if(distance(v) == 0) {
+			return;
+		}
+		int mask = queue.length - 1;
+		int head = 0;
+		int tail = 0;
+		set(v.id, 0);
+		queue[tail++ & mask] = v.id;
+		while(head != tail) {
+			int id = queue[head++ & mask];
+			int d = dist[id] + 1;
+			if(d > bound) {
+				continue;
+			}
+			for(Vertex u : model.vertices[id].neighbors) {
+				if(stamp[u.id] != generation || dist[u.id] > d) {
+					set(u.id, d);
+					queue[tail++ & mask] = u.id;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the distance of a vertex in the current generation.
+	 *
+	 * @param id The id of the vertex.
+	 * @param d The distance.
+	 */
+	private void set(int id, int d) {
+		if(stamp[id] != generation) {
+			stamp[id] = generation;
+			reached[reached_count++] = id;
+		}
+		dist[id] = d;
+	}
+
+	/**
+	 * Returns the distance of a vertex from the sources.
+	 *
+	 * @param v The {@link Vertex} instance.
+	 * @return The distance, exact if it does not exceed the bound of the last search, or Integer.MAX_VALUE if the vertex was not reached.
+	 */
+	public int distance(Vertex v) {
+		return (stamp[v.id] == generation) ? dist[v.id] : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Returns the number of vertices reached from the sources.
+	 *
+	 * @return The number of reached vertices, sources included.
+	 */
+	public int reachedCount() {
+		return reached_count;
+	}
+
+	/**
+	 * Returns a vertex reached from the sources.
+	 *
+	 * @param i The index of the vertex, in order of discovery (from 0 to reachedCount()-1).
+	 * @return The {@link Vertex} instance.
+	 */
+	public Vertex reached(int i) {
+		return model.vertices[reached[i]];
+	}
+
+	/**
+	 * Unmarks all vertices.
+	 */
+	public void clearMarks() {
+		if(mark_generation == Integer.MAX_VALUE) {
+			Arrays.fill(mark, 0);
+			mark_generation = 0;
+		}
+		mark_generation++;
+	}
+
+	/**
+	 * Marks a vertex.
+	 *
+	 * @param v The {@link Vertex} instance.
+	 */
+	public void mark(Vertex v) {
+		mark[v.id] = mark_generation;
+	}
+
+	/**
+	 * Checks if a vertex is marked.
+	 *
+	 * @param v The {@link Vertex} instance.
+	 * @return true if the vertex was marked after the last call to clearMarks().
+	 */
+	public boolean isMarked(Vertex v) {
+		return mark[v.id] == mark_generation;
+	}
+}
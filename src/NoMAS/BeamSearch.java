@@ -0,0 +1,137 @@
+package NoMAS;
+import java.util.*;
+
+/**
+ * Implementation of a beam search strategy to solve the problem. Subnetworks are grown one vertex at a time, as in the greedy strategies,
+ * but instead of keeping one partial solution per start vertex, each level keeps the best subnetworks of its size found so far (the beam).
+ * All the members of the beam are expanded in parallel with every neighbor vertex, duplicates are discarded and the best expansions form the next beam.
+ * The search starts from every vertex, and after the connected pairs the cost of each level only depends on the beam width and on k.
+ *
+ * @author Federico Altieri
+ * @author Tommy V. Hansen
+ * @author Fabio Vandin
+ *
+ */
+public class BeamSearch extends AbstractGreedy {
+
+	/**
+	 * Constructor with model and configuration.
+	 *
+	 * @param model {@link Model} with input data.
+	 * @param config {@link Configuration} with algorithm configuration.
+	 */
+	public BeamSearch(Model model, Configuration config) {
+		super(model, config);
+	}
+
+	/**
+	 *{@inheritDoc}
+	 */
+	public Solution[] run() {
+		long start_time = Utils.getTime();
+		ArrayList<Solution> beam = new ArrayList<Solution>();
+		for(Vertex v : model.vertices) {
+			beam.add(new Solution(v, model));
+		}
+		// The first level holds every vertex, whose expansions are all the connected pairs
+		beam = search(beam, config.k, width());
+		time_elapsed = Utils.timeElapsed(start_time);
+		return SolutionList.merge(config.solutions, config.objective, beam.toArray(new Solution[beam.size()]));
+	}
+
+	/**
+	 *{@inheritDoc}
+	 */
+	public Solution expand(Solution solution, int k) {
+		ArrayList<Solution> beam = new ArrayList<Solution>();
+		beam.add(solution);
+		beam = search(beam, k, width());
+		return beam.isEmpty() ? solution : beam.get(0);
+	}
+
+	/**
+	 * Returns the number of subnetworks kept at each level.
+	 *
+	 * @return The beam width, raised to the number of solutions to output if lower.
+	 */
+	private int width() {
+		return Math.max(config.beam, config.solutions);
+	}
+
+	/**
+	 * Grows the subnetworks of a beam until they reach the given size.
+	 *
+	 * @param beam The {@link Solution} instances of the first level, all of the same size.
+	 * @param k The size of the subnetworks to reach.
+	 * @param width Number of subnetworks kept at each level.
+	 * @return The best subnetworks of size k, sorted from best to worst (fewer than width if the network has not enough of them).
+	 */
+	private ArrayList<Solution> search(ArrayList<Solution> beam, int k, int width) {
+		while(!beam.isEmpty() && beam.get(0).vertices.size() < k) {
+			beam = select(expand(beam), width);
+		}
+		return beam;
+	}
+
+	/**
+	 * Expands in parallel every member of a beam with each of its neighbor vertices.
+	 *
+	 * @param beam The {@link Solution} instances to expand.
+	 * @return The expansions, grouped by thread and in the order of the beam.
+	 */
+	private ArrayList<ArrayList<Solution>> expand(final ArrayList<Solution> beam) {
+		final int N = Math.max(1, Math.min(config.N, beam.size()));
+		final ArrayList<ArrayList<Solution>> expansions = new ArrayList<ArrayList<Solution>>();
+		for(int i=0; i<N; i++) {
+			expansions.add(new ArrayList<Solution>());
+		}
+		WorkerPool.shared().run(N, new WorkerPool.Task() {
+			public void run(int index) {
+				ArrayList<Solution> list = expansions.get(index);
+				int base = Utils.getBase(N, index, beam.size());
+				int limit = base + Utils.getJobCount(N, index, beam.size());
+				for(int j=base; j<limit; j++) {
+					Solution solution = beam.get(j);
+					for(Vertex v : solution.vertices) {
+						for(Vertex u : v.neighbors) {
+							if(!solution.vertices.contains(u)) {
+								list.add(Solution.merge(solution, u, model));
+							}
+						}
+					}
+				}
+			}
+		});
+		return expansions;
+	}
+
+	/**
+	 * Selects the best distinct subnetworks among the expansions of a beam.
+	 *
+	 * @param expansions The expansions of the beam.
+	 * @param width Number of subnetworks to keep.
+	 * @return The next beam, sorted from best to worst.
+	 */
+	private ArrayList<Solution> select(ArrayList<ArrayList<Solution>> expansions, int width) {
+		HashMap<Long, Solution> seen = new HashMap<Long, Solution>();
+		ArrayList<Solution> unique = new ArrayList<Solution>();
+		for(ArrayList<Solution> list : expansions) {
+			for(Solution solution : list) {
+				Solution other = seen.putIfAbsent(solution.hash, solution);
+				// Colliding but different subnetworks are kept as well
+				if(other == null || !Solution.isEqual(other, solution)) {
+					unique.add(solution);
+				}
+			}
+		}
+		Collections.sort(unique, new Comparator<Solution>() {
+			public int compare(Solution a, Solution b) {
+				return config.objective.compare(b, a);
+			}
+		});
+		if(unique.size() > width) {
+			return new ArrayList<Solution>(unique.subList(0, width));
+		}
+		return unique;
+	}
+}
\ No newline at end of file
@@ -80,6 +80,44 @@ public class Bitstring {
 		return dp;
 	}
 	
+	/**
+	 * Returns the number of bits set to 1 in the logical OR of the given bitsets, without computing the OR.
+	 * 
+	 * @param A an operand
+	 * @param B an operand
+	 * @return the number of set bits in the union of the given bitsets
+	 */
+	public static int unionCount(int[] A, int[] B) {
+		int m1 = 0;
+		for(int i=0; i<A.length; i++) {
+			m1 += Integer.bitCount(A[i] | B[i]);
+		}
+		return m1;
+	}
+	
+	/**
+	 * Computes the dot product between the logical OR of the given bitstrings
+	 * and the given array of real values, without computing the OR. The terms are added in the same order as in {@link #dotProductWithArray(int[], double[])}.
+	 * 
+	 * @param A an operand
+	 * @param B an operand
+	 * @param w the array of real values
+	 * @return the product
+	 */
+	public static final double unionDotProduct(int[] A, int[] B, double[] w) {
+		double dp = 0.0;
+		for(int i=0; i<A.length; i++) {
+			int x = A[i] | B[i];
+			int index = i*31;
+			while(x != 0) {
+				int pos = Mod37BitPosition[(x&-x)%37]; // Isolate rightmost and look up
+				x = x & (x-1); // Clear rightmost
+				dp += w[index+pos];
+			}
+		}
+		return dp;
+	}
+	
 	/**
 	 * Computes the logrank of the passed instance of Solution based on the passed weights array when splitting input data for cross validation.
 	 * This method writes the output into the variables dedicated to crossval strategy, but does not perform any split of input data.
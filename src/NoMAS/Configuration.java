@@ -26,6 +26,34 @@ public class Configuration {
 	 * When set to true, it triggers the holdout approach variant (cross-evaluation) of NoMas.
 	 */
 	public boolean crossval = false;
+	/**
+	 * When set to true, the solutions of the algorithm are improved with a local search (see {@link LocalSearch}).
+	 */
+	public boolean refine = false;
+	/**
+	 * When set to true, the NoMAS table skips the merges that cannot score better than the entry being computed or, in the last layer, enter the solutions (see {@link AbstractNoMAS#prunes(Solution, Solution, Solution, boolean)}).
+	 */
+	public boolean prune = false;
+	/**
+	 * When set to true, the exhaustive enumeration skips the extensions of subnetworks whose best achievable score cannot enter the reported solutions.
+	 */
+	public boolean bound = false;
+	/**
+	 * When set to true, the exhaustive enumeration reports the best solutions of both MIN_NLR and MAX_NLR, instead of the ones of the objective function.
+	 */
+	public boolean bothtails = false;
+	/**
+	 * Index (from 1 to shards) of the part of the exhaustive enumeration to run. Default value is 1 when not provided.
+	 */
+	public int shard = 1;
+	/**
+	 * Number of parts the exhaustive enumeration is split into, to be run by separate processes and merged afterwards. Default value is 1 when not provided.
+	 */
+	public int shards = 1;
+	/**
+	 * Path of the file where the exhaustive enumeration saves its progress, and from which it resumes. No checkpoint is written when null.
+	 */
+	public String checkpoint = null;
 	/**
 	 * Number of processors. Default value is 4 when not provided.
 	 */
@@ -54,6 +82,10 @@ public class Configuration {
 	 * Seed for random number generators. Default value is 42 when not provided.
 	 */
 	public int seed = 42;
+	/**
+	 * Number of subnetworks kept at each level by the beam search. Default value is 100 when not provided.
+	 */
+	public int beam = 100;
 	/**
 	 * Number of high scoring solutions to output. Default value is 10 when not provided.
 	 */
@@ -66,6 +98,18 @@ public class Configuration {
 	 * Error probability when generating seed vertices to SNoMAS. Default value is 0.05 when not provided.
 	 */
 	public double seed_error = 0.05;
+	/**
+	 * Directory where the seed vertices generated for SNoMAS are cached. They are only cached in memory when null.
+	 */
+	public String seed_cache = null;
+	/**
+	 * Seed vertices used by the SNoMAS runs after the first one (e.g. permutations): "fixed" reuses the seeds of the first run, "regenerate" generates them from the data of each run. Default value is "fixed" when not provided.
+	 */
+	public String seed_policy = "fixed";
+	/**
+	 * Whether the runs are on permuted data, whose seed vertices are not cached since the same permutation never occurs again (see {@link SeedCache}). Set after the run on the real data.
+	 */
+	public boolean permuted = false;
 	/**
 	 * {@link ArrayList} instance of vertex seeds to SNoMAS.
 	 */
@@ -129,5 +173,36 @@ public class Configuration {
         if((index = Utils.index(tokens, "seederror")) != -1) {
 			seed_error = Double.parseDouble(tokens[index+1]);
 		}
+		if((index = Utils.index(tokens, "seedcache")) != -1) {
+			seed_cache = tokens[index+1];
+		}
+		if((index = Utils.index(tokens, "seedpolicy")) != -1) {
+			seed_policy = tokens[index+1];
+			if(!seed_policy.equals("fixed") && !seed_policy.equals("regenerate")) {
+				System.err.println("No such seed policy: "+seed_policy);
+				System.exit(1);
+			}
+		}
+		if((index = Utils.index(tokens, "beam")) != -1) {
+			beam = Integer.parseInt(tokens[index+1]);
+		}
+		if(Utils.index(tokens, "refine") != -1) {
+			refine = true;
+		}
+		if(Utils.index(tokens, "prune") != -1) {
+			prune = true;
+		}
+		if(Utils.index(tokens, "bound") != -1) {
+			bound = true;
+		}
+		if(Utils.index(tokens, "bothtails") != -1) {
+			bothtails = true;
+		}
+		if((index = Utils.index(tokens, "shard")) != -1) {
+			shard = Integer.parseInt(tokens[index+1]);
+		}
+		if((index = Utils.index(tokens, "shards")) != -1) {
+			shards = Integer.parseInt(tokens[index+1]);
+		}
 	}
 }
@@ -0,0 +1,232 @@
+package NoMAS;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Runner of repeated holdout and K-fold cross-validation. The network and the data are loaded once into a model of all patients;
+ * each split builds its train and control views from it (see {@link Mutations#project(Model, Model, int[])}), runs {@link NoMAS} on the train view
+ * and evaluates the solutions on the control view. Splits are run concurrently, sharing the thread budget of the configuration.
+ * All methods are static.
+ *
+ * @author Federico Altieri
+ * @author Tommy V. Hansen
+ * @author Fabio Vandin
+ *
+ */
+public class CrossValidation {
+	/**
+	 * Header of the summary table of a cross-validation run.
+	 */
+	public static final String HEADER =
+	"split\trank\tMutation count\tlog-rank\tnormalized log-rank\tp-value\tcontrol mutation count\tcontrol log-rank\tcontrol normalized log-rank\tcontrol p-value";
+
+	/**
+	 * Creates the groups of repeated holdout validation: each repetition is an independent train/control split (see {@link Mutations#splitGroups(double[], boolean, int, double, long)}).
+	 * The first repetition uses the given seed, so that a single repetition is the same split as the plain holdout approach.
+	 *
+	 * @param times Survival times of the patients.
+	 * @param timesplits Flag that determines if patients have to be partitioned in groups depending of their survival time.
+	 * @param splits Number of groups to split the patients into.
+	 * @param proportion For each group of patients, determines the proportion (0 = none, 1 = all) of patients to use in training group.
+	 * @param seed Seed to initialize {@link Random} objects that perform randomization.
+	 * @param repeats Number of repetitions.
+	 * @return For each repetition, the group (0 = train, 1 = control) of each patient.
+	 */
+	public static int[][] holdoutGroups(double[] times, boolean timesplits, int splits, double proportion, long seed, int repeats) {
+		int[][] groups = new int[repeats][];
+		Random generator = new Random(seed);
+		for(int r=0; r<repeats; r++) {
+			groups[r] = Mutations.splitGroups(times, timesplits, splits, proportion, seed);
+			seed = generator.nextLong();
+		}
+		return groups;
+	}
+
+	/**
+	 * Creates the groups of K-fold cross-validation: patients are partitioned into K folds, and each fold is the control group of one split.
+	 * Folds are stratified by survival time: within each subgroup (see {@link Mutations#subgroupSizes(double[], boolean, int)}), patients are shuffled and dealt to the folds in turn.
+	 *
+	 * @param times Survival times of the patients.
+	 * @param timesplits Flag that determines if patients have to be partitioned in groups depending of their survival time.
+	 * @param splits Number of groups to split the patients into.
+	 * @param K Number of folds.
+	 * @param seed Seed to initialize {@link Random} objects that perform randomization.
+	 * @return For each fold, the group (0 = train, 1 = control) of each patient.
+	 */
+	public static int[][] kfoldGroups(double[] times, boolean timesplits, int splits, int K, long seed) {
+		int m = times.length;
+		Integer[] order = new Integer[m];
+		for(int i=0; i<m; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return Double.compare(times[a], times[b]);
+			}
+		});
+		double[] sorted = new double[m];
+		for(int i=0; i<m; i++) {
+			sorted[i] = times[order[i]];
+		}
+		int[] sizes = Mutations.subgroupSizes(sorted, timesplits, splits);
+		int[] fold = new int[m];
+		Random rng = new Random(seed);
+		int base = 0;
+		int next = 0;
+		for(int size : sizes) {
+			List<Integer> subgroup = new ArrayList<Integer>(Arrays.asList(order).subList(base, base+size));
+			Collections.shuffle(subgroup, rng);
+			for(int i : subgroup) {
+				fold[i] = next;
+				next = (next+1) % K;
+			}
+			base += size;
+		}
+		int[][] groups = new int[K][m];
+		for(int f=0; f<K; f++) {
+			for(int i=0; i<m; i++) {
+				groups[f][i] = (fold[i] == f) ? 1 : 0;
+			}
+		}
+		return groups;
+	}
+
+	/**
+	 * Runs the splits of a cross-validation. For each split, the train view is cleaned and reduced as in the plain holdout approach, {@link NoMAS} is run on it,
+	 * and the solutions are evaluated on the control view. Up to config.N splits are run at the same time, each with an equal share of the config.N threads.
+	 *
+	 * @param all {@link Model} instance with the network and the data of all patients.
+	 * @param args Arguments of the program, from which the {@link Configuration} of each split is built.
+	 * @param groups For each split, the group (0 = train, 1 = control) of each patient.
+	 * @param threshold Mutation threshold of the train views (see {@link Mutations#removeMutations(Model, double)}).
+	 * @param ignore_file Path to the file of genes whose mutations are ignored in the train views, null if none.
+	 * @param conditions Reduction conditions of the train views (see {@link Graph#reduce(Model, int)}).
+	 * @param samples Number of samples of the p-value estimates.
+	 * @return For each split, the solutions found on the train view, with their statistics on the control view.
+	 */
+	public static Solution[][] run(Model all, String[] args, int[][] groups, double threshold, String ignore_file, int conditions, int samples) {
+		Configuration template = configuration(args);
+		final int splits = groups.length;
+		final int P = Math.max(1, Math.min(splits, template.N));
+		final int threads_per_split = Math.max(1, template.N / P);
+		final Solution[][] results = new Solution[splits][];
+		final AtomicInteger next = new AtomicInteger(0);
+		final AtomicInteger done = new AtomicInteger(0);
+
+		WorkerPool.shared().run(P, new WorkerPool.Task() {
+			public void run(int index) {
+				int s;
+				while((s = next.getAndIncrement()) < splits) {
+					Model train = new Model(all.log);
+					Model control = new Model(all.log);
+					Graph.copy(all, train);
+					Graph.copy(all, control);
+					Mutations.project(all, train, Mutations.patientsOfGroup(groups[s], 0));
+					Mutations.project(all, control, Mutations.patientsOfGroup(groups[s], 1));
+					Mutations.removeMutations(train, threshold);
+					if(ignore_file != null) {
+						Mutations.removeMutationsInGenes(train, ignore_file);
+					}
+					Graph.reduce(train, conditions);
+
+					Configuration config = configuration(args);
+					config.N = threads_per_split;
+					config.progress = false;
+					Algorithm algorithm = new NoMAS(train, config);
+					if(config.refine) {
+						algorithm = new LocalSearch(train, config, algorithm);
+					}
+					Solution[] solutions = nonNull(algorithm.run());
+					SolutionList.computeLogrankCrossval(control, all, solutions);
+					Statistics.pvalue(control, samples, threads_per_split, true, solutions);
+					Statistics.pvalue(train, samples, threads_per_split, false, solutions);
+					results[s] = solutions;
+					System.err.println("Split "+(s+1)+" done ("+done.incrementAndGet()+"/"+splits+").");
+				}
+			}
+		});
+		return results;
+	}
+
+	/**
+	 * Writes the summary table of a cross-validation run: one line per solution of each split, with its statistics on the train and on the control view.
+	 *
+	 * @param stream The {@link PrintStream} instance that handles the output file.
+	 * @param all {@link Model} instance with the network and the data of all patients.
+	 * @param groups For each split, the group (0 = train, 1 = control) of each patient.
+	 * @param results For each split, the solutions returned by {@link #run(Model, String[], int[][], double, String, int, int)}.
+	 */
+	public static void summary(PrintStream stream, Model all, int[][] groups, Solution[][] results) {
+		stream.println(HEADER);
+		for(int s=0; s<results.length; s++) {
+			// Only the censoring information of the control view is needed to normalize its log-rank statistics
+			Model control = new Model(all.log);
+			control.c = controlCensoring(all, groups[s]);
+			control.m = control.c.length;
+			control.norm_coef = Censoring.computeNormCoef(control.c);
+			int rank = 0;
+			for(Solution solution : results[s]) {
+				rank++;
+				double nlrcv = control.normalizeLogrankStatistic(solution.lrcv, solution.m1cv);
+				String line = (s+1)+"\t"+rank+"\t"+solution.m1+"\t"+solution.lr+"\t"+solution.nlr+"\t"+solution.pv
+						+"\t"+solution.m1cv+"\t"+solution.lrcv+"\t"+nlrcv+"\t"+solution.pcv+"\t#";
+				for(Vertex v : solution.vertices) {
+					line += "\t"+v.gene.symbol;
+				}
+				stream.println(line);
+			}
+		}
+		stream.println("");
+		stream.println("Graph file\t"+all.graph_file);
+		stream.println("Mutation matrix file\t"+all.matrix_file);
+		stream.println("Splits\t"+results.length);
+	}
+
+	/**
+	 * Returns the censoring information of the control patients of a split.
+	 *
+	 * @param all {@link Model} instance with the data of all patients.
+	 * @param group The group (0 = train, 1 = control) of each patient.
+	 * @return The censoring information of the control patients, in their original order.
+	 */
+	private static int[] controlCensoring(Model all, int[] group) {
+		int[] patients = Mutations.patientsOfGroup(group, 1);
+		int[] c = new int[patients.length];
+		for(int j=0; j<patients.length; j++) {
+			c[j] = all.c[patients[j]];
+		}
+		return c;
+	}
+
+	/**
+	 * Removes the empty entries of a list of solutions.
+	 *
+	 * @param solutions The list of {@link Solution} instances, possibly with null entries.
+	 * @return The non null {@link Solution} instances, in the same order.
+	 */
+	private static Solution[] nonNull(Solution[] solutions) {
+		ArrayList<Solution> list = new ArrayList<Solution>();
+		for(Solution solution : solutions) {
+			if(solution != null) {
+				list.add(solution);
+			}
+		}
+		return list.toArray(new Solution[0]);
+	}
+
+	/**
+	 * Builds the {@link Configuration} of a split from the arguments of the program.
+	 *
+	 * @param args Arguments of the program.
+	 * @return The {@link Configuration}.
+	 */
+	private static Configuration configuration(String[] args) {
+		Configuration config = new Configuration(args);
+		int index = -1;
+		if((index = Utils.index(args, "func")) != -1) {
+			config.objective = Model.objectiveFromName(args[index+1]);
+		}
+		return config;
+	}
+}
@@ -1,6 +1,7 @@
 package NoMAS;
+import java.io.*;
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 /**
  * Algorithm that implements the brute force approach to the problem resolution, by exhaustive enumeration of all subnetworks of size at most k.
@@ -11,6 +12,14 @@ import java.util.concurrent.*;
  *
  */
 public class ExhaustiveEnumerator implements Algorithm {
+	/**
+	 * Number of epochs of a shard. When a checkpoint file is given, the progress of the enumeration is saved at the end of each epoch.
+	 */
+	private static final int EPOCHS = 100;
+	/**
+	 * First line of a checkpoint file.
+	 */
+	private static final String CHECKPOINT_HEADER = "NoMAS exhaustive enumeration checkpoint";
 	/**
 	 * {@link Model} containing input data.
 	 */
@@ -20,17 +29,21 @@ public class ExhaustiveEnumerator implements Algorithm {
 	 */
 	public Configuration config;
 	/**
-	 * Table of partial solutions to be filled through dynamic programming.
+	 * Collectors of the best subnetworks, one for each reported objective function.
 	 */
-	public Solution[][] solutions;
+	public SolutionCollector[] collectors;
 	/**
 	 * {@link Progressbar} instance that provides a visual aid to user to understand percentage of completion of the process.
 	 */
 	public Progressbar progress;
 	/**
-	 * Count of the processed solutions
+	 * Count of the processed roots
 	 */
 	private int done;
+	/**
+	 * Roots of the subnetworks enumerated by the shard.
+	 */
+	private int[] roots;
 	/**
 	 * Contains the order of processing of the network nodes (it stores the indexes)
 	 */
@@ -39,6 +52,26 @@ public class ExhaustiveEnumerator implements Algorithm {
 	 * Elapsed time in elaboration since start_time. Similar to wall-clock time.
 	 */
 	public double time_elapsed;
+	/**
+	 * Bound mode only: patients by decreasing weight.
+	 */
+	private int[] descending;
+	/**
+	 * Bound mode only: patients by increasing weight.
+	 */
+	private int[] ascending;
+	/**
+	 * Bound mode only: for r vertices, the largest number of patients mutated in their genes.
+	 */
+	private int[] cap_m1;
+	/**
+	 * Bound mode only: for r vertices whose genes are mutated in at most t patients, the largest sum of the positive weights of their patients.
+	 */
+	private double[][] cap_gain;
+	/**
+	 * Bound mode only: for r vertices whose genes are mutated in at most t patients, the lowest sum of the negative weights of their patients.
+	 */
+	private double[][] cap_loss;
 	
 	/**
 	 * COnstructor that initializes configuration, input and progress bar.
@@ -56,39 +89,62 @@ public class ExhaustiveEnumerator implements Algorithm {
 	 *{@inheritDoc}
 	 */
 	public Solution[] run() {
-		solutions = new Solution[2][10];
+		if(config.objective != Model.MAX_NLR && config.objective != Model.MIN_NLR) {
+			System.err.println("ExhaustiveEnumerator supports only the MAX_NLR and MIN_NLR objective functions");
+			System.exit(1);
+		}
+		if(config.bothtails) {
+			collectors = new SolutionCollector[] {new SolutionCollector(Model.MIN_NLR, config.solutions), new SolutionCollector(Model.MAX_NLR, config.solutions)};
+		}else {
+			collectors = new SolutionCollector[] {new SolutionCollector(config.objective, config.solutions)};
+		}
 		computeTimestamps();
-		done = 0;
-		progress.update(0.0);
+		if(config.bound) {
+			computeBoundData();
+		}
+		roots = shardRoots();
+		int epochs = Math.max(1, Math.min(EPOCHS, roots.length));
+		int first = 0;
+		long fingerprint = fingerprint();
+		if(config.checkpoint != null) {
+			config.checkpoint = Output.verifyPath(config.checkpoint);
+			first = resume(fingerprint, epochs);
+		}
+		done = Utils.getBase(epochs, first, roots.length);
+		progress.update(done/(double)roots.length);
 		long start_time = Utils.getTime();
-		ExecutorService pool = Executors.newFixedThreadPool(config.N);
-		for(final Vertex v : model.vertices) {
-			pool.submit(new Callable<Object>() {
-				public Object call() {
-					Solution[][] lists = new Solution[2][10];
-					int[] xn = new int[model.n];
-					ArrayList<Node> beta = new ArrayList<Node>();
-					Node root = depth(0, v, beta, xn, timestamps[v.id]);
-					traverse(root, null, lists);
-					submitSolutions(lists);
-					return null;
+		final Enumeration[] enumerations = new Enumeration[config.N];
+		for(int i=0; i<config.N; i++) {
+			enumerations[i] = new Enumeration();
+		}
+		for(int e=first; e<epochs; e++) {
+			final int end = Utils.getBase(epochs, e, roots.length) + Utils.getJobCount(epochs, e, roots.length);
+			final AtomicInteger next = new AtomicInteger(Utils.getBase(epochs, e, roots.length));
+			WorkerPool.shared().run(config.N, new WorkerPool.Task() {
+				public void run(int index) {
+					Enumeration enumeration = enumerations[index];
+					int i;
+					while((i = next.getAndIncrement()) < end) {
+						enumeration.enumerate(model.vertices[roots[i]]);
+						rootDone();
+					}
 				}
 			});
+			// The checkpoint of the last epoch is kept until the results are written (see Main)
+			if(config.checkpoint != null) {
+				checkpoint(fingerprint, e+1, epochs);
+			}
 		}
-		pool.shutdown();
-		try {
-			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-		}catch(Exception e) {}
 		progress.update(1.0);
 		progress.finish();
 		time_elapsed = Utils.timeElapsed(start_time);
 		System.err.println("ExhaustiveEnumerator finished in "+time_elapsed+" seconds.");
-		Solution[] both_solutions = new Solution[20];
-		for(int i=0; i<10; i++) {
-			both_solutions[i] = solutions[0][i];
-			both_solutions[10+i] = solutions[1][i];
+		// With both tails, the lists of the two objective functions are concatenated
+		Solution[] solutions = new Solution[collectors.length*config.solutions];
+		for(int i=0; i<collectors.length; i++) {
+			System.arraycopy(collectors[i].collect(), 0, solutions, i*config.solutions, config.solutions);
 		}
-		return both_solutions;
+		return solutions;
 	}
 	
 	/**
@@ -99,109 +155,302 @@ public class ExhaustiveEnumerator implements Algorithm {
 	}
 	
 	/**
-	 * Expands the tree of the explored subnetworks of nodes in depth
+	 * Updates the progress bar when all the subnetworks rooted at a vertex have been enumerated.
+	 */
+	private synchronized void rootDone() {
+		done++;
+		progress.update(done/(double)roots.length);
+	}
+	
+	/**
+	 * Returns the roots of the subnetworks enumerated by the shard (see {@link Configuration#shard}).
+	 * Since each subnetwork is enumerated from the vertex with the earliest timestamp, the shards enumerate disjoint sets of subnetworks.
+	 * The shard with index i gets the vertices whose timestamp is i-1 modulo the number of shards: the work of a root strongly depends on its timestamp,
+	 * so that interleaved timestamps balance the shards better than contiguous ranges.
 	 * 
-	 * @param size Current size of explored subnetworks
-	 * @param v {@link Vertex} instance to become root of the subtree to process
-	 * @param beta {@link ArrayList} of {@link Node} instances to process and eventually include in the tree
-	 * @param xn Array of integers, indicating if the vertex corresponding to the index have been already included in an explored subnetwork
-	 * @param timestamp Current step of execution
-	 * @return The root instance of {@link Node} representing the root of the tree of explored subnetworks starting from v. Returns null if the size of the explored subnetworks exceeds k
-	 */
-	private Node depth(int size, Vertex v, ArrayList<Node> beta, int[] xn, int timestamp) {
-		size++;
-		if(size > config.k) {
-			return null;
-		}	
-		xn_add(xn, v);
-		Node n = new Node(v);
-		ArrayList<Node> beta_prime = new ArrayList<Node>();
-		for(int i=0; i<beta.size(); i++) {
-			Node n_prime = breadth(size, beta.get(i), v, xn, timestamp);
-			if(n_prime != null) {
-				n.addChild(n_prime);
-				beta_prime.add(n_prime);
-			}
+	 * @return The ids of the roots, in ascending order.
+	 */
+	private int[] shardRoots() {
+		if(config.shards < 1 || config.shard < 1 || config.shard > config.shards) {
+			System.err.println("Invalid shard "+config.shard+" of "+config.shards);
+			System.exit(1);
 		}
-		for(Vertex u : v.neighbors) {
-			if(timestamps[u.id] < timestamp || !xn_included(xn, u)) {
-				continue;
+		int count = 0;
+		for(int i=0; i<model.n; i++) {
+			if(timestamps[i] % config.shards == config.shard-1) {
+				count++;
 			}
-			Node n_prime = depth(size, u, beta_prime, xn, timestamp);
-			if(n_prime != null) {
-				n.addChild(n_prime);
-				beta_prime.add(n_prime);
+		}
+		int[] roots = new int[count];
+		count = 0;
+		for(int i=0; i<model.n; i++) {
+			if(timestamps[i] % config.shards == config.shard-1) {
+				roots[count++] = i;
 			}
-		}	
-		xn_remove(xn, v);
-		return n;
+		}
+		return roots;
 	}
 	
 	/**
-	 * Performs an "horizontal" search in the tree, to basically eliminate double entries in subnetworks exploration.
-	 * Returns a new instance of {@link Node} and relative sub-subnetworks if it finds new paths
+	 * Computes a fingerprint of the enumeration: the model (network, mutations and weights) and the parameters that determine its results.
+	 * A checkpoint is resumed only by an enumeration with the same fingerprint.
 	 * 
-	 * @param size Current size of explored subnetworks
-	 * @param n {@link Node} instance to process
-	 * @param v {@link Vertex} instance to process and check neighbors
-	 * @param xn Array of integers, indicating if the vertex corresponding to the index have been already included in an explored subnetwork
-	 * @param timestamp Current step of execution
-	 * @return The root instance of {@link Node} representing the root of the tree of explored valid subnetworks starting from v. Returns null if the size of the explored subnetworks exceeds k
-	 */
-	private Node breadth(int size, Node n, Vertex v, int[] xn, int timestamp) {
-		size++;
-		if(xn_included(xn, n.vertex)) {
+	 * @return The fingerprint.
+	 */
+	private long fingerprint() {
+		long h = 0xcbf29ce484222325L;
+		h = Utils.mix(h, model.n);
+		h = Utils.mix(h, model.m);
+		h = Utils.mix(h, config.k);
+		h = Utils.mix(h, config.solutions);
+		h = Utils.mix(h, config.shard);
+		h = Utils.mix(h, config.shards);
+		for(SolutionCollector collector : collectors) {
+			h = Utils.mix(h, collector.objective.getName().hashCode());
+		}
+		for(Vertex v : model.vertices) {
+			h = Utils.mix(h, v.neighbors.size());
 			for(Vertex u : v.neighbors) {
-				if(timestamps[u.id] < timestamp) {
+				h = Utils.mix(h, (u == null) ? -1 : u.id);
+			}
+			for(int word : v.gene.x) {
+				h = Utils.mix(h, word);
+			}
+		}
+		for(double w : model.w) {
+			h = Utils.mix(h, Double.doubleToLongBits(w));
+		}
+		return h;
+	}
+	
+	/**
+	 * Writes the progress of the enumeration to the checkpoint file: the number of completed epochs and the vertices of the best subnetworks of each collector.
+	 * The file is written under a temporary name and renamed, so that a run killed while writing leaves the previous checkpoint intact.
+	 * 
+	 * @param fingerprint The fingerprint of the enumeration (see {@link #fingerprint()}).
+	 * @param completed The number of completed epochs.
+	 * @param epochs The number of epochs.
+	 */
+	private void checkpoint(long fingerprint, int completed, int epochs) {
+		File tmp = new File(config.checkpoint+".tmp");
+		try(PrintStream stream = new PrintStream(new FileOutputStream(tmp))) {
+			stream.println(CHECKPOINT_HEADER);
+			stream.println("Fingerprint\t"+fingerprint);
+			stream.println("Epochs\t"+completed+"\t"+epochs);
+			for(SolutionCollector collector : collectors) {
+				stream.println("Collector\t"+collector.objective.getName());
+				for(Solution solution : collector.collect()) {
+					if(solution != null) {
+						String line = "";
+						for(Vertex v : solution.vertices) {
+							line += (line.isEmpty() ? "" : "\t")+v.id;
+						}
+						stream.println(line);
+					}
+				}
+			}
+			if(stream.checkError()) {
+				throw new IOException();
+			}
+		}catch(IOException e) {
+			System.err.println("Failed to write checkpoint: "+config.checkpoint);
+			tmp.delete();
+			return;
+		}
+		if(!tmp.renameTo(new File(config.checkpoint))) {
+			tmp.delete();
+		}
+	}
+	
+	/**
+	 * Resumes the enumeration from the checkpoint file, if it exists and has the fingerprint of the enumeration: the best subnetworks it lists are offered again to the collectors.
+	 * 
+	 * @param fingerprint The fingerprint of the enumeration (see {@link #fingerprint()}).
+	 * @param epochs The number of epochs.
+	 * @return The number of completed epochs, 0 if there is no checkpoint to resume.
+	 */
+	private int resume(long fingerprint, int epochs) {
+		if(!new File(config.checkpoint).exists()) {
+			return 0;
+		}
+		ArrayList<String> lines = new ArrayList<String>();
+		BufferedReader reader = Utils.bufferedReader(config.checkpoint);
+		String line;
+		while((line = Utils.readLine(reader)) != null) {
+			lines.add(line);
+		}
+		Utils.close(reader);
+		int completed;
+		ArrayList<ArrayList<Solution>> lists = new ArrayList<ArrayList<Solution>>();
+		try {
+			if(!lines.get(0).equals(CHECKPOINT_HEADER) || Long.parseLong(lines.get(1).split("\t")[1]) != fingerprint
+					|| Integer.parseInt(lines.get(2).split("\t")[2]) != epochs) {
+				System.err.println("Ignoring checkpoint of a different enumeration: "+config.checkpoint);
+				return 0;
+			}
+			completed = Integer.parseInt(lines.get(2).split("\t")[1]);
+			for(int i=3; i<lines.size(); i++) {
+				String[] tokens = lines.get(i).split("\t");
+				if(tokens[0].equals("Collector")) {
+					lists.add(new ArrayList<Solution>());
 					continue;
 				}
-				if(u == n.vertex) {
-					return null;
+				Solution solution = new Solution();
+				for(String token : tokens) {
+					solution.vertices.add(model.vertices[Integer.parseInt(token)]);
 				}
+				solution.canonicalize();
+				SolutionList.computeLogrank(model, solution);
+				lists.get(lists.size()-1).add(solution);
+			}
+		}catch(RuntimeException e) {
+			System.err.println("Ignoring unreadable checkpoint: "+config.checkpoint);
+			return 0;
+		}
+		if(lists.size() != collectors.length) {
+			System.err.println("Ignoring checkpoint of a different enumeration: "+config.checkpoint);
+			return 0;
+		}
+		for(int i=0; i<collectors.length; i++) {
+			SolutionHeap heap = collectors[i].newHeap();
+			double sign = sign(collectors[i].objective);
+			for(Solution solution : lists.get(i)) {
+				collectors[i].offer(heap, solution, sign*solution.nlr);
+			}
+		}
+		System.err.println("Resuming from checkpoint "+config.checkpoint+": "+completed+" of "+epochs+" epochs completed.");
+		return completed;
+	}
+	
+	/**
+	 * Merges the solution files written by the shards of an enumeration (see {@link Configuration#shard}) into the solutions of the whole enumeration.
+	 * 
+	 * @param model The {@link Model} of the enumeration.
+	 * @param config The {@link Configuration} of the enumeration.
+	 * @param files Paths to the solution files of the shards.
+	 * @return The best config.solutions subnetworks for the objective function of the configuration, or for both MIN_NLR and MAX_NLR (concatenated) if config.bothtails is set.
+	 */
+	public static Solution[] mergeShards(Model model, Configuration config, String... files) {
+		Solution[][] lists = new Solution[files.length][];
+		for(int i=0; i<files.length; i++) {
+			lists[i] = SolutionList.fromFile(model, files[i]);
+		}
+		Objective[] objectives = config.bothtails ? new Objective[] {Model.MIN_NLR, Model.MAX_NLR} : new Objective[] {config.objective};
+		Solution[] solutions = new Solution[objectives.length*config.solutions];
+		for(int i=0; i<objectives.length; i++) {
+			System.arraycopy(SolutionList.merge(config.solutions, objectives[i], lists), 0, solutions, i*config.solutions, config.solutions);
+		}
+		return solutions;
+	}
+	
+	/**
+	 * Bound mode only: sorts the patients by weight and computes the caps of the vertices that can be added to a subnetwork.
+	 */
+	private void computeBoundData() {
+		Integer[] order = new Integer[model.m];
+		for(int i=0; i<model.m; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return Double.compare(model.w[b], model.w[a]);
 			}
+		});
+		descending = new int[model.m];
+		ascending = new int[model.m];
+		for(int i=0; i<model.m; i++) {
+			descending[i] = order[i];
+			ascending[i] = order[model.m-1-i];
 		}
-		if(size > config.k) {
-			return null;
+		// Vertices by number of mutated patients, with the sums of positive and negative weights of their patients
+		Integer[] vertices = new Integer[model.n];
+		double[] gains = new double[model.n];
+		double[] losses = new double[model.n];
+		for(Vertex v : model.vertices) {
+			vertices[v.id] = v.id;
+			for(int i=0; i<model.m; i++) {
+				if(Bitstring.getBit(v.gene.x, i) == 1) {
+					if(model.w[i] > 0) {
+						gains[v.id] += model.w[i];
+					}else {
+						losses[v.id] += model.w[i];
+					}
+				}
+			}
 		}
-		Node n_prime = new Node(n.vertex);
-		for(Node n_star : n.children) {
-			Node n_dprime = breadth(size, n_star, v, xn, timestamp);
-			if(n_dprime != null) {
-				n_prime.addChild(n_dprime);
+		Arrays.sort(vertices, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return model.vertices[a].gene.m1 - model.vertices[b].gene.m1;
+			}
+		});
+		int k = config.k;
+		int[] top_m1 = new int[k];
+		double[] top_gain = new double[k];
+		double[] top_loss = new double[k];
+		cap_m1 = new int[k];
+		cap_gain = new double[k][model.m+1];
+		cap_loss = new double[k][model.m+1];
+		int next = 0;
+		for(int t=0; t<=model.m; t++) {
+			for(; next<model.n && model.vertices[vertices[next]].gene.m1 == t; next++) {
+				insertTop(top_m1, t);
+				insertTop(top_gain, gains[vertices[next]]);
+				insertTop(top_loss, -losses[vertices[next]]);
+			}
+			for(int r=1; r<k; r++) {
+				cap_gain[r][t] = cap_gain[r-1][t] + top_gain[r-1];
+				cap_loss[r][t] = cap_loss[r-1][t] - top_loss[r-1];
 			}
 		}
-		return n_prime;
+		for(int r=1; r<k; r++) {
+			cap_m1[r] = cap_m1[r-1] + top_m1[r-1];
+		}
 	}
 	
 	/**
-	 * Walks the tree and fills the {@link Solution} instances table by merging close subnetworks
+	 * Bound mode only: inserts a value in a list of the largest values, in decreasing order.
 	 * 
-	 * @param root {@link Node} instance root of the subtree to explore
-	 * @param solution {@link Solution} instance to merge (parameter for recursion)
-	 * @param lists Table of {@link Solution} instances to fill
+	 * @param top The list of the largest values.
+	 * @param value The value to insert.
 	 */
-	private void traverse(Node root, Solution solution, Solution[][] lists) {
-		Solution candidate = new Solution(root.vertex, model);
-		if(solution != null) {
-			candidate = Solution.merge(solution, candidate, model);
+	private static void insertTop(int[] top, int value) {
+		int i = top.length-1;
+		if(top[i] >= value) {
+			return;
 		}
-		SolutionList.insert(lists[0], candidate, Model.MIN_NLR);
-		SolutionList.insert(lists[1], candidate, Model.MAX_NLR);
-		for(Node child : root.children) {
-			traverse(child, candidate, lists);
+		while(i > 0 && top[i-1] < value) {
+			top[i] = top[i-1];
+			i--;
 		}
+		top[i] = value;
 	}
 	
 	/**
-	 * Submits candidate solutions to the table of solutions, one for each objective function (min or max score)
+	 * Bound mode only: inserts a value in a list of the largest values, in decreasing order.
 	 * 
-	 * @param lists Table of {@link Solution} instances to fill
+	 * @param top The list of the largest values.
+	 * @param value The value to insert.
 	 */
-	private synchronized void submitSolutions(Solution[][] lists) {
-		solutions[0] = SolutionList.merge(10, Model.MIN_NLR, solutions[0], lists[0]);
-		solutions[1] = SolutionList.merge(10, Model.MAX_NLR, solutions[1], lists[1]);
-		done++;
-		progress.update(done/(double)model.n);
+	private static void insertTop(double[] top, double value) {
+		int i = top.length-1;
+		if(top[i] >= value) {
+			return;
+		}
+		while(i > 0 && top[i-1] < value) {
+			top[i] = top[i-1];
+			i--;
+		}
+		top[i] = value;
+	}
+	
+	/**
+	 * Returns the sign that turns the normalized log-rank statistic into a key that grows as solutions improve (see {@link SolutionCollector}).
+	 * 
+	 * @param objective The objective function, MAX_NLR or MIN_NLR.
+	 * @return -1 for MIN_NLR, 1 otherwise.
+	 */
+	private static double sign(Objective objective) {
+		return (objective == Model.MIN_NLR) ? -1.0 : 1.0;
 	}
 	
 	/**
@@ -223,17 +472,6 @@ public class ExhaustiveEnumerator implements Algorithm {
 		}
 	}
 	
-	/**
-	 * Checks if the {@link Vertex} instance have been already included in an explored subnetwork
-	 * 
-	 * @param xn Array of integers, indicating if the vertex corresponding to the index have been already included in an explored subnetwork
-	 * @param v The {@link Vertex} instance to look for
-	 * @return true if included, false elsewhere
-	 */
-	private boolean xn_included(int[] xn, Vertex v) {
-		return (v == null) ? false : (xn[v.id] == 1);
-	}
-	
 	/**
 	 * Marks the indexes corresponding to the {@link Vertex} v and all its neighbors as included in an explored subnetwork
 	 * 
@@ -265,45 +503,254 @@ public class ExhaustiveEnumerator implements Algorithm {
 	}	
 	
 	/**
-	 * Node of a tree-like data structure used to order instances od {@link Vertex}
+	 * State of the enumeration performed by a worker thread, following the ESU scheme of Wernicke: the connected subnetworks rooted at a vertex v are the ones whose other vertices have a later timestamp than v.
+	 * A subnetwork is extended by vertices of its extension set, which holds the neighbors of the subnetwork with a later timestamp than v that may still be added;
+	 * after adding vertex w, the extension set of the new subnetwork is made of the remaining extension vertices and of the neighbors of w that are neither in the subnetwork nor adjacent to it.
+	 * Each connected subnetwork of size at most k is thus visited exactly once.
+	 * The enumeration is iterative, and all its buffers are allocated once per worker: for each depth (subnetwork size), the extension set, the bitset of the mutated patients,
+	 * and the log-rank statistic and mutation count, which are updated only over the patients added by the last vertex.
+	 * A {@link Solution} instance is created only for the subnetworks admitted by one of the collectors.
 	 * 
 	 * @author Federico Altieri
 	 * @author Tommy V. Hansen
 	 * @author Fabio Vandin
 	 *
 	 */
-	private class Node {
+	private class Enumeration {
+		/**
+		 * Heaps of the best subnetworks found by the worker, one for each collector.
+		 */
+		SolutionHeap[] heaps;
+		/**
+		 * Vertices of the current subnetwork, in order of addition.
+		 */
+		Vertex[] stack;
+		/**
+		 * For each depth, the extension set of the subnetwork of that size.
+		 */
+		int[][] extension;
+		/**
+		 * For each depth, the number of vertices in the extension set.
+		 */
+		int[] extension_size;
 		/**
-		 * The {@link Vertex} instance of the node
+		 * For each depth, the bitset of the patients mutated in the subnetwork of that size.
 		 */
-		Vertex vertex;
+		int[][] x;
 		/**
-		 * Reference to the {@link Node} instance parent
+		 * For each depth, the log-rank statistic of the subnetwork of that size.
 		 */
-		Node parent;
+		double[] lr;
 		/**
-		 * {@link ArrayList} of references to the {@link Node} instances of the children of the current tree node
+		 * For each depth, the number of patients mutated in the subnetwork of that size.
 		 */
-		ArrayList<Node> children;
+		int[] m1;
+		/**
+		 * For each vertex, the number of vertices of the subnetwork that it is equal or adjacent to.
+		 */
+		int[] xn;
 		
 		/**
-		 * Constructor. It builds a Node with an instance of {@link Vertex} and an empty children list
+		 * Constructor that allocates the buffers of the enumeration.
+		 */
+		Enumeration() {
+			heaps = new SolutionHeap[collectors.length];
+			for(int i=0; i<collectors.length; i++) {
+				heaps[i] = collectors[i].newHeap();
+			}
+			int k = config.k;
+			stack = new Vertex[k];
+			extension = new int[k+1][16];
+			extension_size = new int[k+1];
+			x = new int[k+1][Bitstring.getEmpty(model.m).length];
+			lr = new double[k+1];
+			m1 = new int[k+1];
+			xn = new int[model.n];
+		}
+		
+		/**
+		 * Enumerates all connected subnetworks of size at most k rooted at a vertex, and offers them to the collectors.
 		 * 
-		 * @param v The {@link Vertex} instance of the node
+		 * @param v The root {@link Vertex}.
 		 */
-		public Node(Vertex v) {
-			vertex = v;
-			children = new ArrayList<Node>();
+		void enumerate(Vertex v) {
+			int timestamp = timestamps[v.id];
+			stack[0] = v;
+			System.arraycopy(v.gene.x, 0, x[1], 0, x[1].length);
+			lr[1] = Bitstring.dotProductWithArray(v.gene.x, model.w);
+			m1[1] = v.gene.m1;
+			extension_size[1] = 0;
+			for(Vertex u : v.neighbors) {
+				if(u != null && timestamps[u.id] > timestamp) {
+					push(1, u.id);
+				}
+			}
+			xn_add(xn, v);
+			consider(1);
+			if(config.bound && 1 < config.k-1 && hopeless(1)) {
+				extension_size[1] = 0;
+			}
+			
+			int depth = 1;
+			while(depth > 0) {
+				if(depth < config.k && extension_size[depth] > 0) {
+					Vertex w = model.vertices[extension[depth][--extension_size[depth]]];
+					// The extension set of the new subnetwork is not needed when it cannot grow further
+					extension_size[depth+1] = 0;
+					if(depth+1 < config.k) {
+						for(int i=0; i<extension_size[depth]; i++) {
+							push(depth+1, extension[depth][i]);
+						}
+						for(Vertex u : w.neighbors) {
+							if(u != null && timestamps[u.id] > timestamp && xn[u.id] == 0) {
+								push(depth+1, u.id);
+							}
+						}
+					}
+					xn_add(xn, w);
+					stack[depth] = w;
+					union(depth, w);
+					depth++;
+					consider(depth);
+					// A subnetwork that can only grow by one vertex is cheaper to extend than to bound
+					if(config.bound && depth < config.k-1 && hopeless(depth)) {
+						extension_size[depth] = 0;
+					}
+				}else {
+					depth--;
+					xn_remove(xn, stack[depth]);
+				}
+			}
+		}
+		
+		/**
+		 * Adds a vertex to the extension set of a depth, enlarging it if needed.
+		 * 
+		 * @param depth The depth.
+		 * @param id The id of the vertex.
+		 */
+		private void push(int depth, int id) {
+			if(extension_size[depth] == extension[depth].length) {
+				extension[depth] = Arrays.copyOf(extension[depth], 2*extension[depth].length);
+			}
+			extension[depth][extension_size[depth]++] = id;
+		}
+		
+		/**
+		 * Computes the bitset, log-rank statistic and mutation count of the subnetwork of size depth+1 obtained by adding a vertex to the subnetwork of size depth.
+		 * Only the patients mutated in the vertex and not in the subnetwork contribute to the update.
+		 * 
+		 * @param depth The size of the subnetwork.
+		 * @param w The {@link Vertex} to add.
+		 */
+		private void union(int depth, Vertex w) {
+			int[] X = x[depth];
+			int[] Y = w.gene.x;
+			int[] Z = x[depth+1];
+			double dp = lr[depth];
+			int count = m1[depth];
+			for(int i=0; i<Z.length; i++) {
+				int added = Y[i] & ~X[i];
+				Z[i] = X[i] | Y[i];
+				if(added != 0) {
+					count += Integer.bitCount(added);
+					int index = i*Bitstring.BITS;
+					while(added != 0) {
+						dp += model.w[index+Integer.numberOfTrailingZeros(added)];
+						added &= added-1;
+					}
+				}
+			}
+			lr[depth+1] = dp;
+			m1[depth+1] = count;
+		}
+		
+		/**
+		 * Offers the current subnetwork to the collectors, creating its {@link Solution} instance only if at least one of them admits it.
+		 * 
+		 * @param depth The size of the subnetwork.
+		 */
+		private void consider(int depth) {
+			double nlr = model.normalizeLogrankStatistic(lr[depth], m1[depth]);
+			// Candidates are filtered on the incrementally computed score, with a tolerance for rounding, and offered with the exact one
+			double tolerance = 1e-9*Math.abs(nlr);
+			Solution candidate = null;
+			for(int i=0; i<collectors.length; i++) {
+				double sign = sign(collectors[i].objective);
+				if(!collectors[i].admits(sign*nlr + tolerance)) {
+					continue;
+				}
+				if(candidate == null) {
+					candidate = new Solution();
+					for(int j=0; j<depth; j++) {
+						candidate.vertices.add(stack[j]);
+					}
+					candidate.canonicalize();
+					candidate.x = Arrays.copyOf(x[depth], x[depth].length);
+					candidate.computeLogrankStatistic(model);
+				}
+				collectors[i].offer(heaps[i], candidate, sign*candidate.nlr);
+			}
 		}
 		
 		/**
-		 * Adds an instance of {@link Node} to the list of children
+		 * Bound mode only: checks whether no subnetwork obtained by extending the current one can be admitted by the collectors,
+		 * i.e. whether its best achievable score is strictly worse than the admission threshold of every collector.
 		 * 
-		 * @param child The child instance of {@link Node}
+		 * @param depth The size of the subnetwork.
+		 * @return true if the extensions of the subnetwork can be skipped.
 		 */
-		public void addChild(Node child) {
-			children.add(child);
-			child.parent = this;
+		private boolean hopeless(int depth) {
+			for(SolutionCollector collector : collectors) {
+				double sign = sign(collector.objective);
+				if(reaches(depth, sign > 0, sign*collector.threshold())) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		/**
+		 * Bound mode only: checks whether the best normalized log-rank statistic that an extension of the current subnetwork can achieve reaches a cutoff.
+		 * An extension adds at most r = k - depth vertices, hence j new patients with j at most the largest number of patients mutated in r genes.
+		 * The log-rank statistic of the extension is at most (at least) the statistic of the subnetwork plus the sum of the j highest (lowest) weights of the new patients;
+		 * it is also at most (at least) the statistic of the subnetwork plus the largest sum of positive (negative) weights of the patients of r genes,
+		 * where only genes mutated in at most m1 + j patients can add j new patients.
+		 * The bound is the best of these statistics over j (including j = 0), each normalized with m1 + j mutated patients, and the check stops at the first j that reaches the cutoff.
+		 * 
+		 * @param depth The size of the subnetwork.
+		 * @param maximum true to check the upper bound against the cutoff for MAX_NLR, false to check the lower bound against the cutoff for MIN_NLR.
+		 * @param cutoff The cutoff.
+		 * @return false if the bound is strictly worse than the cutoff.
+		 */
+		private boolean reaches(int depth, boolean maximum, double cutoff) {
+			int[] X = x[depth];
+			int r = config.k-depth;
+			int[] order = maximum ? descending : ascending;
+			double[] caps = maximum ? cap_gain[r] : cap_loss[r];
+			// The scores are compared with a tolerance for the rounding of the incrementally computed statistic
+			double target = maximum ? cutoff - 1e-9*Math.abs(cutoff) : cutoff + 1e-9*Math.abs(cutoff);
+			// Extensions that add no patients have the score of the subnetwork
+			double current = model.normalizeLogrankStatistic(lr[depth], m1[depth]);
+			if(maximum ? current >= target : current <= target) {
+				return true;
+			}
+			double added = 0.0;
+			int count = m1[depth];
+			int limit = Math.min(model.m, count+cap_m1[r]);
+			for(int i=0; i<order.length && count<limit; i++) {
+				if(Bitstring.getBit(X, order[i]) == 1) {
+					continue;
+				}
+				added += model.w[order[i]];
+				count++;
+				double sum = lr[depth] + (maximum ? Math.min(added, caps[count]) : Math.max(added, caps[count]));
+				double nlr = model.normalizeLogrankStatistic(sum, count);
+				if(maximum ? nlr >= target : nlr <= target) {
+					return true;
+				}
+			}
+			return false;
 		}
 	}
-}
+}
\ No newline at end of file
@@ -9,6 +9,15 @@ package NoMAS;
  *
  */
 public class FatNoMAS extends AbstractNoMAS {
+	/**
+	 * {@link SolutionHeap} of each thread, collecting the best L subnetworks of the entry being computed.
+	 */
+	private SolutionHeap[] heaps;
+	/**
+	 * 1 when maximizing and -1 when minimizing the normalized log-rank statistic, 0 for the other objectives.
+	 */
+	private int sign;
+	
 	/**
 	 * @param model {@link Model} containing input data.
 	 * @param config {@link Configuration} containing algorithm parameters and system configuration.
@@ -17,11 +26,26 @@ public class FatNoMAS extends AbstractNoMAS {
 		super(model, config);
 	}
 
+	/**
+	 *{@inheritDoc}
+	 */
+	@Override
+	public void initialize() {
+		super.initialize();
+		heaps = new SolutionHeap[config.N];
+		for(int i=0; i<config.N; i++) {
+			heaps[i] = new SolutionHeap(config.L);
+		}
+		sign = (config.objective == Model.MAX_NLR) ? 1 : (config.objective == Model.MIN_NLR) ? -1 : 0;
+	}
+
 	/**
 	 *{@inheritDoc}
 	 */
 	public Solution computeEntry(Vertex v, int T, int last, int p) {
-		Solution[] best = new Solution[config.L];
+		SolutionHeap best = heaps[p];
+		best.clear();
+		long order = 0;
 		for(int rowQ=last; rowQ>=0; rowQ--) {
 			int Q = row_to_colorset[rowQ];
 			int R = Bitstring.setDifference(T, Q);
@@ -31,29 +55,44 @@ public class FatNoMAS extends AbstractNoMAS {
 			}
 			for(Vertex u : v.neighbors) {
 				if(W[rowR][u.id] != null) {
-					crossProduct(W[rowQ][v.id], W[rowR][u.id], best);
+					order = crossProduct(W[rowQ][v.id], W[rowR][u.id], best, order);
 				}
 			}
 		}
-		return SolutionList.toLinkedList(best);
+		return best.toLinkedList();
 	}
 	
 	/**
-	 * Computes an array containing the best scoring subnetworks obtainable by all possible merging of the given subnetworks. All merged subnetworks are explored with an exhaustive approach.
+	 * Collects the best scoring subnetworks obtainable by all possible merging of the given subnetworks. All merged subnetworks are explored with an exhaustive approach.
+	 * With the normalized log-rank objectives, a merged subnetwork is only built if its score, computed from the union of the populations, can enter the collection.
+	 * Each merge is offered with an increasing order, so that among subnetworks with the same score the latest one wins and is linked first, as with {@link SolutionList#insert(Solution[], Solution, Objective)}.
 	 * 
 	 * @param a instance of {@link Solution} representing the first subnetwork to merge
 	 * @param b instance of {@link Solution} representing the second subnetwork to merge
-	 * @param list array of {@link Solution} instances of best scoring merged subnetworks
+	 * @param heap {@link SolutionHeap} of the best scoring merged subnetworks
+	 * @param order The order of the first merge.
+	 * @return The order of the merge following the last one.
 	 */
-	public final void crossProduct(Solution a, Solution b, Solution[] list) {
+	public final long crossProduct(Solution a, Solution b, SolutionHeap heap, long order) {
 		while(a != null) {
 			Solution inner = b;
 			while(inner != null) {
-				Solution candidate = Solution.merge(a, inner, model);
-				SolutionList.insert(list, candidate, config.objective);
+				if(sign != 0) {
+					double lr = Bitstring.unionDotProduct(a.x, inner.x, model.w);
+					int m1 = Bitstring.unionCount(a.x, inner.x);
+					if(heap.admits(sign*model.normalizeLogrankStatistic(lr, m1), order)) {
+						Solution candidate = Solution.merge(a, inner, model);
+						heap.offerUnique(candidate, config.objective.key(candidate), order);
+					}
+				}else {
+					Solution candidate = Solution.merge(a, inner, model);
+					heap.offerUnique(candidate, config.objective.key(candidate), order);
+				}
+				order++;
 				inner = inner.next;
 			}
 			a = a.next;
 		}
+		return order;
 	}
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package NoMAS;
 import java.util.*;
-import java.io.*;
+import java.nio.*;
 
 /**
  * Class that loads the the main network and performs basic operations. All methods are static 
@@ -13,15 +13,24 @@ import java.io.*;
 public class Graph {
 	/**
 	 * Constructs a graph in the given {@link Model} instance.
+	 * Files whose first line is not the number of vertices are read as edge lists (see {@link #loadEdgeList(String, Model)}).
 	 *
 	 * @param filename {@link String} containing path of the graph data file
 	 * @param model The {@link Model} to contain the graph
 	 */
 	public static void loadGraph(String filename, Model model) {		
-		BufferedReader reader = Utils.bufferedReader(filename);
-		String line = Utils.readLine(reader);
+		ByteBuffer buffer = LineTokenizer.load(filename);
+		LineTokenizer tokenizer = (buffer != null) ? new LineTokenizer(buffer, 0, buffer.limit()) : LineTokenizer.open(filename);
+		tokenizer.nextLine();
+		boolean header = tokenizer.nextWord() && tokenizer.isInteger();
+		int n = header ? tokenizer.intValue() : 0;
+		if(!header || tokenizer.nextWord()) {
+			tokenizer.close();
+			loadEdgeList(filename, model);
+			return;
+		}
 		
-		model.n = Integer.parseInt(line);
+		model.n = n;
 		model.vertices = new Vertex[model.n];
 		model.genes = new Gene[model.n];	
 		
@@ -33,21 +42,132 @@ public class Graph {
 			model.vertices[i].gene = model.genes[i];
 		}	
 		
-		for(int i=0; i<model.n; i++) {
-			String[] parts = Utils.readLine(reader).split("\t");
-			model.genes[i].symbol = parts[1];
-			for(int j=2; j<parts.length; j++) {
-				Vertex neighbor = model.vertices[Integer.parseInt(parts[j]) - 1];
-				model.vertices[i].addNeighbor(neighbor);
+		// Each line only modifies its own vertex, so lines can be parsed concurrently
+		LineTokenizer.LineParser parser = new LineTokenizer.LineParser() {
+			public void parse(LineTokenizer tokenizer, int i) {
+				tokenizer.nextToken();
+				tokenizer.nextToken();
+				model.genes[i].symbol = tokenizer.stringValue();
+				while(tokenizer.nextToken()) {
+					if(!tokenizer.isEmpty()) {
+						Vertex neighbor = model.vertices[tokenizer.intValue() - 1];
+						model.vertices[i].addNeighbor(neighbor);
+					}
+				}
+			}
+		};
+		if(buffer != null) {
+			int[] starts = LineTokenizer.lineStarts(buffer, tokenizer.nextLinePosition(), model.n);
+			LineTokenizer.parseLines(buffer, starts, 1, parser);
+		}else {
+			for(int i=0; i<model.n; i++) {
+				tokenizer.nextLine();
+				parser.parse(tokenizer, i);
 			}
+			tokenizer.close();
 		}
 		
-		Utils.close(reader);
+		indexSymbols(model);
 		model.graph_file = filename;
 		model.log.stream.println("[Graph] File name: "+model.graph_file);
 		printInformation(model, "\t");
 	}
 
+	/**
+	 * Constructs a graph in the given {@link Model} instance from an edge list, in a single pass over the file.
+	 * Each line holds the symbols of two interacting genes separated by tabs or spaces; further columns, self loops and lines starting with '#' are ignored.
+	 * Vertices are numbered in order of first appearance.
+	 *
+	 * @param filename {@link String} containing path of the edge list file
+	 * @param model The {@link Model} to contain the graph
+	 */
+	public static void loadEdgeList(String filename, Model model) {
+		ByteBuffer buffer = LineTokenizer.load(filename);
+		LineTokenizer tokenizer = (buffer != null) ? new LineTokenizer(buffer, 0, buffer.limit()) : LineTokenizer.open(filename);
+		SymbolTable table = new SymbolTable(1 << 12);
+		ArrayList<Vertex> vertices = new ArrayList<Vertex>();
+		// Edges seen so far, to skip duplicates without scanning the neighbor lists of hubs
+		HashSet<Long> edges = new HashSet<Long>();
+		while(tokenizer.nextLine()) {
+			if(!tokenizer.nextWord() || tokenizer.byteAt(tokenizer.start) == '#') {
+				continue;
+			}
+			Vertex v = edgeListVertex(tokenizer, table, vertices);
+			if(tokenizer.nextWord()) {
+				Vertex u = edgeListVertex(tokenizer, table, vertices);
+				long edge = ((long)Math.min(u.id, v.id) << 32) | Math.max(u.id, v.id);
+				if(u != v && edges.add(edge)) {
+					v.neighbors.add(u);
+					u.neighbors.add(v);
+					v.degree = v.neighbors.size();
+					u.degree = u.neighbors.size();
+				}
+			}
+		}
+		tokenizer.close();
+		
+		model.n = vertices.size();
+		model.vertices = vertices.toArray(new Vertex[0]);
+		model.genes = new Gene[model.n];
+		for(int i=0; i<model.n; i++) {
+			model.genes[i] = model.vertices[i].gene;
+		}
+		indexSymbols(model);
+		model.graph_file = filename;
+		model.log.stream.println("[Graph] File name: "+model.graph_file);
+		printInformation(model, "\t");
+	}
+	
+	/**
+	 * Returns the vertex of the gene symbol held by the current token of an edge list, creating it on first appearance.
+	 *
+	 * @param tokenizer The {@link LineTokenizer} positioned on the symbol.
+	 * @param table {@link SymbolTable} mapping symbols to vertex ids.
+	 * @param vertices The vertices created so far.
+	 * @return The {@link Vertex} of the symbol.
+	 */
+	private static Vertex edgeListVertex(LineTokenizer tokenizer, SymbolTable table, ArrayList<Vertex> vertices) {
+		int id = table.putIfAbsent(tokenizer.buffer(), tokenizer.start, tokenizer.end, vertices.size());
+		if(id == vertices.size()) {
+			Vertex v = new Vertex();
+			v.id = id;
+			v.gene = new Gene();
+			v.gene.symbol = tokenizer.stringValue();
+			vertices.add(v);
+		}
+		return vertices.get(id);
+	}
+
+	/**
+	 * Copies the network of a model into another model, without reading the network file again.
+	 * The copy has its own vertices and genes (with empty mutation data), so that it can be reduced or hold different mutation data independently of the original.
+	 *
+	 * @param source The {@link Model} containing the network to copy
+	 * @param target The {@link Model} to contain the copy
+	 */
+	public static void copy(Model source, Model target) {
+		target.n = source.n;
+		target.vertices = new Vertex[target.n];
+		target.genes = new Gene[target.n];
+		for(int i=0; i<target.n; i++) {
+			target.vertices[i] = new Vertex();
+			target.genes[i] = new Gene();
+			target.genes[i].symbol = source.genes[i].symbol;
+			target.vertices[i].id = i;
+			target.vertices[i].gene = target.genes[i];
+		}
+		for(int i=0; i<target.n; i++) {
+			Vertex v = target.vertices[i];
+			v.neighbors.ensureCapacity(source.vertices[i].neighbors.size());
+			for(Vertex u : source.vertices[i].neighbors) {
+				v.neighbors.add(target.vertices[u.id]);
+			}
+			v.degree = source.vertices[i].degree;
+		}
+		indexSymbols(target);
+		target.graph_file = source.graph_file;
+	}
+
 	/**
 	 * Reduces the size of the given graph by removing vertices.
 	 *
@@ -83,6 +203,7 @@ public class Graph {
 				model.vertices[i].id = i; // update vertex id
 				model.genes[i] = good_genes.get(i);
 			}
+			indexSymbols(model);
 			
 			model.log.stream.println("[Graph] Reduction performed");
 			printInformation(model, "\t");
@@ -257,12 +378,19 @@ public class Graph {
 	 * @return The corresponding instance of {@link Vertex} if present, null elsewhere.
 	 */
 	public static Vertex getVertexBySymbol(Model model, String symbol) {
+		return model.symbols.get(symbol);
+	}
+	
+	/**
+	 * Builds the index of the vertices of a network by gene symbol. When several vertices share a symbol, the one with the smallest id is indexed.
+	 * 
+	 * @param model {@link Model} instance with data.
+	 */
+	public static void indexSymbols(Model model) {
+		model.symbols = new HashMap<String, Vertex>(2*model.n);
 		for(Vertex v : model.vertices) {
-			if(v.gene.symbol.equals(symbol)) {
-				return v;
-			}
+			model.symbols.putIfAbsent(v.gene.symbol, v);
 		}
-		return null;
 	}
 	
 	/**
@@ -10,6 +10,18 @@ import java.util.*;
  *
  */
 public class Greedy1 extends AbstractGreedy {
+	/**
+	 * Index of the vertices mutated in each patient, built at each run since permutations change the data.
+	 */
+	private int[][] carriers;
+	/**
+	 * {@link GreedyFrontier} of each thread.
+	 */
+	private final ThreadLocal<GreedyFrontier> frontiers = new ThreadLocal<GreedyFrontier>() {
+		protected GreedyFrontier initialValue() {
+			return new GreedyFrontier(model);
+		}
+	};
 	
 	/**
 	 * Constructor with model and configuration.
@@ -21,10 +33,25 @@ public class Greedy1 extends AbstractGreedy {
 		super(model, config);
 	}
 	
+	/**
+	 *{@inheritDoc}
+	 */
+	public Solution[] run() {
+		carriers = GreedyFrontier.carriers(model);
+		return super.run();
+	}
+	
 	/**
 	 *{@inheritDoc}
 	 */
 	public Solution expand(Solution solution, int k) {
+		if(config.objective == Model.MAX_NLR || config.objective == Model.MIN_NLR) {
+			if(carriers == null) {
+				carriers = GreedyFrontier.carriers(model);
+			}
+			int sign = (config.objective == Model.MIN_NLR) ? -1 : 1;
+			return frontiers.get().expand(solution, k, sign, carriers);
+		}
 		boolean[] in_solution = new boolean[model.n];
 		boolean[] visited = new boolean[model.n];
 		for(Vertex v : solution.vertices) {
@@ -28,11 +28,12 @@ public class GreedyDFS extends AbstractGreedy {
 			return solution;
 		}
 		int previous_size = solution.vertices.size();
-		int[] dist = Graph.shortestPaths(model, solution.vertices);
-		boolean[] visited = new boolean[model.n];
+		BFSEngine bfs = engines.get();
+		bfs.update(solution.vertices, k - previous_size);
+		bfs.clearMarks();
 		Solution best = solution;
 		for(Vertex v : solution.vertices) {
-			best = branch(v, solution, best, k, dist, visited);
+			best = branch(v, solution, best, k, bfs);
 		}
 		if(best.vertices.size() == previous_size) {
 			return best;
@@ -47,22 +48,22 @@ public class GreedyDFS extends AbstractGreedy {
 	 * @param current The current {@link Solution} to explore.
 	 * @param best The actual highest scoring solution found.
 	 * @param k The size of the subnetwork to find
-	 * @param dist array with paths to other nodes 
-	 * @param visited array of boolean that tells if the nodes have already been explored or not
+	 * @param bfs {@link BFSEngine} with the distances to other nodes, where the nodes already explored are marked
 	 * @return the best solution among the explored
 	 */
-	private Solution branch(Vertex v, Solution current, Solution best, int k, int[] dist, boolean[] visited) {
-		visited[v.id] = true;
+	private Solution branch(Vertex v, Solution current, Solution best, int k, BFSEngine bfs) {
+		bfs.mark(v);
 		if(v.degree == 0 || current.vertices.size() == k) {
 			return best;
 		}
+		int dist = bfs.distance(v);
 		for(Vertex u : v.neighbors) {
-			if(!visited[u.id] && dist[u.id] == dist[v.id]+1) {
+			if(!bfs.isMarked(u) && bfs.distance(u) == dist+1) {
 				Solution candidate = Solution.merge(current, u, model);
 				if(config.objective.compare(candidate, best) > 0) {
 					best = candidate;
 				}
-				best = branch(u, candidate, best, k, dist, visited);
+				best = branch(u, candidate, best, k, bfs);
 			}
 		}
 		return best;
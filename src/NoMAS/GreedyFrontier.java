@@ -0,0 +1,223 @@
+package NoMAS;
+import java.util.*;
+
+/**
+ * Frontier of a solution grown by {@link Greedy1}, keeping for each candidate vertex the log-rank statistic and the number of patients it would add to the solution.
+ * When a vertex is added, only the candidates that share some of its new patients, found through the index of the vertices mutated in each patient, and its new neighbors are re-scored,
+ * instead of merging every candidate with the whole solution. Candidates are kept in the order in which the greedy scan of the neighbors of the solution meets them.
+ * All buffers are allocated once and generation-stamped: an instance is not thread safe, each thread should use its own.
+ *
+ * @author Federico Altieri
+ * @author Tommy V. Hansen
+ * @author Fabio Vandin
+ *
+ */
+public class GreedyFrontier {
+	/**
+	 * {@link Model} containing input data.
+	 */
+	private final Model model;
+	/**
+	 * Generation in which each vertex entered the frontier.
+	 */
+	private final int[] frontier_stamp;
+	/**
+	 * Generation in which each vertex entered the solution.
+	 */
+	private final int[] solution_stamp;
+	/**
+	 * Step in which each vertex was last re-scored.
+	 */
+	private final int[] scored_stamp;
+	/**
+	 * Current generation.
+	 */
+	private int generation;
+	/**
+	 * Current step, unique across generations.
+	 */
+	private int step;
+	/**
+	 * Ids of the vertices of the frontier, in order of insertion.
+	 */
+	private final int[] order;
+	/**
+	 * Number of vertices inserted in the frontier.
+	 */
+	private int size;
+	/**
+	 * Sum of the weights of the patients each candidate would add to the solution.
+	 */
+	private final double[] gain_lr;
+	/**
+	 * Number of patients each candidate would add to the solution.
+	 */
+	private final int[] gain_m1;
+
+	/**
+	 * Constructor that allocates the buffers for the network of a model.
+	 *
+	 * @param model {@link Model} containing input data.
+	 */
+	public GreedyFrontier(Model model) {
+		this.model = model;
+		frontier_stamp = new int[model.n];
+		solution_stamp = new int[model.n];
+		scored_stamp = new int[model.n];
+		order = new int[model.n];
+		gain_lr = new double[model.n];
+		gain_m1 = new int[model.n];
+		generation = 0;
+		step = 0;
+	}
+
+	/**
+	 * Builds the index of the vertices mutated in each patient.
+	 *
+	 * @param model {@link Model} containing input data.
+	 * @return For each patient, the ids of the vertices whose gene is mutated in it.
+	 */
+	public static int[][] carriers(Model model) {
+		int[] counts = new int[model.m];
+		for(Vertex v : model.vertices) {
+			for(int j=0; j<model.m; j++) {
+				counts[j] += Bitstring.getBit(v.gene.x, j);
+			}
+		}
+		int[][] carriers = new int[model.m][];
+		for(int j=0; j<model.m; j++) {
+			carriers[j] = new int[counts[j]];
+			counts[j] = 0;
+		}
+		for(Vertex v : model.vertices) {
+			for(int j=0; j<model.m; j++) {
+				if(Bitstring.getBit(v.gene.x, j) == 1) {
+					carriers[j][counts[j]++] = v.id;
+				}
+			}
+		}
+		return carriers;
+	}
+
+	/**
+	 * Expands a solution adding at each step the neighbor that improves the normalized log-rank statistic the most, as long as one does.
+	 * Ties go to the candidate met first.
+	 *
+	 * @param solution The {@link Solution} instance to expand.
+	 * @param k The size of the solution.
+	 * @param sign 1 to maximize the normalized log-rank statistic, -1 to minimize it.
+	 * @param carriers The index of the vertices mutated in each patient (see carriers(Model)).
+	 * @return The expanded {@link Solution}.
+	 */
+	public Solution expand(Solution solution, int k, int sign, int[][] carriers) {
+		clear();
+		for(Vertex v : solution.vertices) {
+			solution_stamp[v.id] = generation;
+		}
+		for(Vertex v : solution.vertices) {
+			step++;
+			addNeighbors(v, solution.x);
+		}
+		while(solution.vertices.size() < k) {
+			double best = sign*solution.nlr;
+			int best_id = -1;
+			for(int i=0; i<size; i++) {
+				int id = order[i];
+				if(solution_stamp[id] != generation) {
+					double score = sign*model.normalizeLogrankStatistic(solution.lr + gain_lr[id], solution.m1 + gain_m1[id]);
+					if(score > best) {
+						best = score;
+						best_id = id;
+					}
+				}
+			}
+			if(best_id == -1) {
+				return solution;
+			}
+			Vertex added = model.vertices[best_id];
+			int[] previous = solution.x;
+			solution = Solution.merge(solution, added, model);
+			solution_stamp[best_id] = generation;
+			if(solution.vertices.size() == k) {
+				return solution;
+			}
+			// Re-score the candidates sharing the patients just covered
+			step++;
+			int[] x = added.gene.x;
+			for(int i=0; i<x.length; i++) {
+				int bits = x[i] & ~previous[i];
+				int index = i*Bitstring.BITS;
+				while(bits != 0) {
+					int pos = Integer.numberOfTrailingZeros(bits);
+					bits &= bits-1;
+					for(int id : carriers[index+pos]) {
+						if(frontier_stamp[id] == generation && solution_stamp[id] != generation && scored_stamp[id] != step) {
+							score(id, solution.x);
+						}
+					}
+				}
+			}
+			addNeighbors(added, solution.x);
+		}
+		return solution;
+	}
+
+	/**
+	 * Starts a new generation, emptying the frontier and the solution.
+	 */
+	private void clear() {
+		if(generation == Integer.MAX_VALUE) {
+			Arrays.fill(frontier_stamp, 0);
+			Arrays.fill(solution_stamp, 0);
+			generation = 0;
+		}
+		if(step >= Integer.MAX_VALUE - model.n) {
+			Arrays.fill(scored_stamp, 0);
+			step = 0;
+		}
+		generation++;
+		size = 0;
+	}
+
+	/**
+	 * Inserts in the frontier the neighbors of a vertex that are neither in the frontier nor in the solution.
+	 *
+	 * @param v The {@link Vertex} instance.
+	 * @param x The bitstring of the patients covered by the solution.
+	 */
+	private void addNeighbors(Vertex v, int[] x) {
+		for(Vertex u : v.neighbors) {
+			if(frontier_stamp[u.id] != generation && solution_stamp[u.id] != generation) {
+				frontier_stamp[u.id] = generation;
+				order[size++] = u.id;
+				score(u.id, x);
+			}
+		}
+	}
+
+	/**
+	 * Computes the patients a candidate would add to the solution.
+	 *
+	 * @param id The id of the candidate vertex.
+	 * @param x The bitstring of the patients covered by the solution.
+	 */
+	private void score(int id, int[] x) {
+		int[] y = model.vertices[id].gene.x;
+		double[] w = model.w;
+		double lr = 0.0;
+		int m1 = 0;
+		for(int i=0; i<y.length; i++) {
+			int bits = y[i] & ~x[i];
+			int index = i*Bitstring.BITS;
+			while(bits != 0) {
+				int pos = Integer.numberOfTrailingZeros(bits);
+				bits &= bits-1;
+				lr += w[index+pos];
+				m1++;
+			}
+		}
+		gain_lr[id] = lr;
+		gain_m1[id] = m1;
+		scored_stamp[id] = step;
+	}
+}
@@ -28,13 +28,18 @@ public class GreedyK extends AbstractGreedy {
 			return solution;
 		}
 		int max_dist = k - solution.vertices.size();
-		int[] dist = Graph.shortestPaths(model, solution.vertices);
+		BFSEngine bfs = engines.get();
+		bfs.update(solution.vertices, max_dist);
 		Solution best = solution;
 		Vertex last_added = null;
-		for(Vertex v : model.vertices) {
-			if(dist[v.id] > 0 && dist[v.id] <= max_dist) {
+		for(int i=0; i<bfs.reachedCount(); i++) {
+			Vertex v = bfs.reached(i);
+			int dist = bfs.distance(v);
+			if(dist > 0 && dist <= max_dist) {
 				Solution candidate = Solution.merge(solution, v, model);
-				if(config.objective.compare(candidate, best) > 0) {
+				int comparison = config.objective.compare(candidate, best);
+				// Ties go to the lowest id, as when scanning the vertices in order
+				if(comparison > 0 || (comparison == 0 && last_added != null && v.id < last_added.id)) {
 					best = candidate;
 					last_added = v;
 				}
@@ -43,7 +48,7 @@ public class GreedyK extends AbstractGreedy {
 		if(last_added == null) {
 			return solution;
 		}
-		Solution fixed_solution = fix(best, last_added, dist);
+		Solution fixed_solution = fix(best, last_added, bfs);
 		return expand(fixed_solution, k);	
 	}
 	
@@ -52,17 +57,18 @@ public class GreedyK extends AbstractGreedy {
 	 * 
 	 * @param solution The current {@link Solution}instance to process.
 	 * @param last_added {@link Vertex} instance of last added node.
-	 * @param dist the distances array.
+	 * @param bfs the {@link BFSEngine} holding the distances from the solution before the last addition.
 	 * @return the fixed solution
 	 */
-	private Solution fix(Solution solution, Vertex last_added, int[] dist) {
-		if(dist[last_added.id] == 1) {
+	private Solution fix(Solution solution, Vertex last_added, BFSEngine bfs) {
+		int dist = bfs.distance(last_added);
+		if(dist == 1) {
 			return solution;
 		}
 		Solution best = null;
 		Vertex best_added = null;
 		for(Vertex u : last_added.neighbors) {
-			if(dist[u.id] == dist[last_added.id] - 1) {
+			if(bfs.distance(u) == dist - 1) {
 				Solution candidate = Solution.merge(solution, u, model);
 				if(best == null || config.objective.compare(candidate, best) > 0) {
 					best = candidate;
@@ -70,6 +76,6 @@ public class GreedyK extends AbstractGreedy {
 				}
 			}
 		}
-		return fix(best, best_added, dist);
+		return fix(best, best_added, bfs);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,188 @@
+package NoMAS;
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ * A container of static methods for reading gzip compressed input files (files whose name ends with ".gz").
+ * Files made of independent gzip members whose compressed sizes are recorded in the headers (the BGZF layout produced by bgzip) are inflated in parallel;
+ * any other gzip file is inflated as a stream.
+ *
+ * @author Federico Altieri
+ * @author Tommy V. Hansen
+ * @author Fabio Vandin
+ *
+ */
+public class Gzip {
+	/**
+	 * Size of the buffers of the inflating streams.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Checks whether a file is gzip compressed, based on its name.
+	 *
+	 * @param filename Path to the file.
+	 * @return true if the name of the file ends with ".gz".
+	 */
+	public static boolean isCompressed(String filename) {
+		return filename.endsWith(".gz");
+	}
+
+	/**
+	 * Opens a gzip compressed file as a stream of inflated bytes. Concatenated members are read one after the other.
+	 *
+	 * @param filename Path to the file.
+	 * @return The {@link InputStream} of the inflated bytes.
+	 * @throws IOException if the file cannot be opened or is not gzip compressed.
+	 */
+	public static InputStream open(String filename) throws IOException {
+		return new GZIPInputStream(new FileInputStream(filename), BUFFER_SIZE);
+	}
+
+	/**
+	 * Inflates a gzip compressed file made of several members in parallel. Each member must record its compressed size in a "BC" extra field of its header.
+	 *
+	 * @param compressed {@link ByteBuffer} holding the compressed file (e.g. memory mapped).
+	 * @return A {@link ByteBuffer} holding the inflated bytes, or null if the file does not have the required layout, has a single member or inflates to more than 2GB.
+	 */
+	public static ByteBuffer inflate(ByteBuffer compressed) {
+		// Locate the members from their headers
+		int[] starts = new int[16];
+		int members = 0;
+		int position = 0;
+		int limit = compressed.limit();
+		long total = 0;
+		while(position < limit) {
+			int size = memberSize(compressed, position);
+			if(size <= 0 || position+size > limit) {
+				return null;
+			}
+			if(members+1 >= starts.length) {
+				starts = Arrays.copyOf(starts, 2*starts.length);
+			}
+			starts[members++] = position;
+			total += inflatedSize(compressed, position, size);
+			position += size;
+		}
+		starts[members] = position;
+		if(members < 2 || total > Integer.MAX_VALUE) {
+			return null;
+		}
+
+		// Offsets of the members in the inflated data
+		final int[] offsets = new int[members+1];
+		for(int i=0; i<members; i++) {
+			offsets[i+1] = offsets[i] + inflatedSize(compressed, starts[i], starts[i+1]-starts[i]);
+		}
+		final byte[] inflated = new byte[offsets[members]];
+		final int[] member_starts = starts;
+		final int count = members;
+		final boolean[] failed = new boolean[1];
+		int N = Math.min(Runtime.getRuntime().availableProcessors(), members);
+		WorkerPool.shared().run(N, new WorkerPool.Task() {
+			public void run(int index) {
+				int base = Utils.getBase(N, index, count);
+				int jobs = Utils.getJobCount(N, index, count);
+				Inflater inflater = new Inflater(true);
+				CRC32 crc = new CRC32();
+				ByteBuffer source = compressed.duplicate();
+				for(int j=base; j<base+jobs; j++) {
+					int header = headerSize(compressed, member_starts[j]);
+					source.limit(member_starts[j+1]-8);
+					source.position(member_starts[j]+header);
+					inflater.reset();
+					inflater.setInput(source);
+					try {
+						int length = offsets[j+1]-offsets[j];
+						int done = 0;
+						while(done < length && !inflater.finished()) {
+							int n = inflater.inflate(inflated, offsets[j]+done, length-done);
+							if(n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+								break;
+							}
+							done += n;
+						}
+						crc.reset();
+						crc.update(inflated, offsets[j], done);
+						int trailer = member_starts[j+1]-8;
+						int expected = unsignedShort(compressed, trailer) | (unsignedShort(compressed, trailer+2) << 16);
+						if(done != length || (int)crc.getValue() != expected) {
+							failed[0] = true;
+						}
+					}catch(DataFormatException e) {
+						failed[0] = true;
+					}
+				}
+				inflater.end();
+			}
+		});
+		if(failed[0]) {
+			System.err.println("Failed to inflate gzip members in parallel, falling back to streaming");
+			return null;
+		}
+		return ByteBuffer.wrap(inflated);
+	}
+
+	/**
+	 * Returns the size of the header of the gzip member starting at a given position.
+	 *
+	 * @param buffer The {@link ByteBuffer} holding the compressed file.
+	 * @param position Position of the member.
+	 * @return The size of the header, in bytes.
+	 */
+	private static int headerSize(ByteBuffer buffer, int position) {
+		return 12 + unsignedShort(buffer, position+10);
+	}
+
+	/**
+	 * Reads the total size of the gzip member starting at a given position from the "BC" extra field of its header.
+	 *
+	 * @param buffer The {@link ByteBuffer} holding the compressed file.
+	 * @param position Position of the member.
+	 * @return The size of the member in bytes, or -1 if the header does not record it.
+	 */
+	private static int memberSize(ByteBuffer buffer, int position) {
+		int limit = buffer.limit();
+		// Magic number, deflate method and FEXTRA flag
+		if(position+18 > limit || (buffer.get(position) & 0xff) != 0x1f || (buffer.get(position+1) & 0xff) != 0x8b
+				|| buffer.get(position+2) != 8 || (buffer.get(position+3) & 4) == 0) {
+			return -1;
+		}
+		int end = position + headerSize(buffer, position);
+		int field = position+12;
+		while(field+4 <= end && end <= limit) {
+			int length = unsignedShort(buffer, field+2);
+			if(buffer.get(field) == 'B' && buffer.get(field+1) == 'C' && length == 2) {
+				return unsignedShort(buffer, field+4) + 1;
+			}
+			field += 4 + length;
+		}
+		return -1;
+	}
+
+	/**
+	 * Reads the inflated size of a gzip member from its trailer.
+	 *
+	 * @param buffer The {@link ByteBuffer} holding the compressed file.
+	 * @param position Position of the member.
+	 * @param size Size of the member.
+	 * @return The inflated size, in bytes.
+	 */
+	private static int inflatedSize(ByteBuffer buffer, int position, int size) {
+		int i = position+size-4;
+		return unsignedShort(buffer, i) | (unsignedShort(buffer, i+2) << 16);
+	}
+
+	/**
+	 * Reads an unsigned little endian 16 bit integer.
+	 *
+	 * @param buffer The {@link ByteBuffer} to read.
+	 * @param position Position of the integer.
+	 * @return The integer.
+	 */
+	private static int unsignedShort(ByteBuffer buffer, int position) {
+		return (buffer.get(position) & 0xff) | ((buffer.get(position+1) & 0xff) << 8);
+	}
+}
@@ -0,0 +1,450 @@
+package NoMAS;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Byte-level tokenizer of tab-separated text files. Lines and tokens are delimited directly on the bytes of a {@link ByteBuffer},
+ * so that numbers can be parsed and symbols looked up (see {@link SymbolTable}) without allocating {@link String} instances.
+ * The tokenizer either works on a range of a buffer holding the whole input (e.g. a memory mapped file), which allows several tokenizers to parse disjoint ranges in parallel,
+ * or streams the input from a {@link ReadableByteChannel}, refilling its buffer as needed.
+ *
+ * @author Federico Altieri
+ * @author Tommy V. Hansen
+ * @author Fabio Vandin
+ *
+ */
+public class LineTokenizer {
+	/**
+	 * Files larger than this number of bytes are parsed in parallel by the loaders.
+	 */
+	public static final int PARALLEL_THRESHOLD = 1 << 22;
+	/**
+	 * Initial size of the buffer of a streaming tokenizer.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+	/**
+	 * Buffer holding the bytes. Only absolute accesses are performed on it.
+	 */
+	private ByteBuffer buffer;
+	/**
+	 * Channel the bytes are streamed from, null if the buffer holds the whole input.
+	 */
+	private ReadableByteChannel channel;
+	/**
+	 * End (exclusive) of the valid bytes of the buffer.
+	 */
+	private int limit;
+	/**
+	 * Start of the next line.
+	 */
+	private int next_line;
+	/**
+	 * End (exclusive) of the current line, without line terminators.
+	 */
+	private int line_end;
+	/**
+	 * Position from which the next token is searched, or -1 if the current line has no more tokens.
+	 */
+	private int cursor;
+	/**
+	 * Start (inclusive) of the current token.
+	 */
+	public int start;
+	/**
+	 * End (exclusive) of the current token.
+	 */
+	public int end;
+
+	/**
+	 * Constructs a tokenizer over a range of a buffer holding complete lines.
+	 *
+	 * @param buffer The {@link ByteBuffer} holding the input.
+	 * @param from Position of the first byte of the range.
+	 * @param to Position after the last byte of the range.
+	 */
+	public LineTokenizer(ByteBuffer buffer, int from, int to) {
+		this.buffer = buffer;
+		next_line = from;
+		limit = to;
+		cursor = -1;
+	}
+
+	/**
+	 * Constructs a tokenizer that streams the input from a channel.
+	 *
+	 * @param channel The {@link ReadableByteChannel} to read from.
+	 */
+	public LineTokenizer(ReadableByteChannel channel) {
+		this.channel = channel;
+		buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		limit = 0;
+		next_line = 0;
+		cursor = -1;
+	}
+
+	/**
+	 * Advances to the next line of the input.
+	 *
+	 * @return true if a line is available, false at the end of the input.
+	 */
+	public boolean nextLine() {
+		int i = next_line;
+		while(true) {
+			while(i < limit && buffer.get(i) != '\n') {
+				i++;
+			}
+			if(i < limit || channel == null) {
+				break;
+			}
+			// Refilling may compact the buffer, so the scan resumes relative to the current line
+			int scanned = i - next_line;
+			boolean more = fill();
+			i = next_line + scanned;
+			if(!more) {
+				break;
+			}
+		}
+		if(next_line >= limit) {
+			return false;
+		}
+		int line_start = next_line;
+		line_end = i;
+		next_line = (i < limit) ? i+1 : i;
+		if(line_end > line_start && buffer.get(line_end-1) == '\r') {
+			line_end--;
+		}
+		cursor = line_start;
+		return true;
+	}
+
+	/**
+	 * Advances to the next tab-separated token of the current line. Tokens may be empty.
+	 *
+	 * @return true if a token is available, false at the end of the line.
+	 */
+	public boolean nextToken() {
+		if(cursor < 0) {
+			return false;
+		}
+		start = cursor;
+		int i = cursor;
+		while(i < line_end && buffer.get(i) != '\t') {
+			i++;
+		}
+		end = i;
+		cursor = (i < line_end) ? i+1 : -1;
+		return true;
+	}
+
+	/**
+	 * Advances to the next token of the current line, taking any run of tabs and spaces as a single separator. Tokens are never empty.
+	 *
+	 * @return true if a token is available, false at the end of the line.
+	 */
+	public boolean nextWord() {
+		if(cursor < 0) {
+			return false;
+		}
+		int i = cursor;
+		while(i < line_end && (buffer.get(i) == '\t' || buffer.get(i) == ' ')) {
+			i++;
+		}
+		if(i == line_end) {
+			cursor = -1;
+			return false;
+		}
+		start = i;
+		while(i < line_end && buffer.get(i) != '\t' && buffer.get(i) != ' ') {
+			i++;
+		}
+		end = i;
+		cursor = (i < line_end) ? i : -1;
+		return true;
+	}
+
+	/**
+	 * Checks whether the current token is a decimal integer.
+	 *
+	 * @return true if the token can be parsed by {@link #intValue()}.
+	 */
+	public boolean isInteger() {
+		try {
+			intValue();
+			return true;
+		}catch(NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Reads the remaining input of a streaming tokenizer into the buffer, compacting or enlarging it as needed.
+	 *
+	 * @return true if new bytes were read, false at the end of the input.
+	 */
+	private boolean fill() {
+		if(next_line > 0) {
+			// Move the current line to the beginning of the buffer
+			ByteBuffer source = buffer.duplicate();
+			source.position(next_line);
+			source.limit(limit);
+			ByteBuffer target = buffer.duplicate();
+			target.position(0);
+			target.put(source);
+			limit -= next_line;
+			next_line = 0;
+		}
+		if(limit == buffer.capacity()) {
+			ByteBuffer larger = ByteBuffer.allocate(2*buffer.capacity());
+			ByteBuffer source = buffer.duplicate();
+			source.position(0);
+			source.limit(limit);
+			larger.put(source);
+			buffer = larger;
+		}
+		ByteBuffer target = buffer.duplicate();
+		target.position(limit);
+		target.limit(buffer.capacity());
+		int read = -1;
+		try {
+			read = channel.read(target);
+		}catch(IOException e) {
+			System.err.println("Failed to read from file");
+		}
+		if(read <= 0) {
+			return false;
+		}
+		limit += read;
+		return true;
+	}
+
+	/**
+	 * Returns the byte at the given position of the buffer.
+	 *
+	 * @param i The position.
+	 * @return The byte.
+	 */
+	public byte byteAt(int i) {
+		return buffer.get(i);
+	}
+
+	/**
+	 * Returns the buffer the tokens refer to. The buffer of a streaming tokenizer changes when it is refilled.
+	 *
+	 * @return The {@link ByteBuffer}.
+	 */
+	public ByteBuffer buffer() {
+		return buffer;
+	}
+
+	/**
+	 * Checks whether the current token is empty.
+	 *
+	 * @return true if the token is empty.
+	 */
+	public boolean isEmpty() {
+		return start == end;
+	}
+
+	/**
+	 * Parses the current token as a decimal integer.
+	 *
+	 * @return The value of the token.
+	 * @throws NumberFormatException if the token is not an integer.
+	 */
+	public int intValue() {
+		int i = start;
+		boolean negative = false;
+		if(i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+			negative = buffer.get(i) == '-';
+			i++;
+		}
+		if(i == end) {
+			throw new NumberFormatException("For input string: \""+stringValue()+"\"");
+		}
+		long value = 0;
+		for(; i<end; i++) {
+			int digit = buffer.get(i) - '0';
+			if(digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+				throw new NumberFormatException("For input string: \""+stringValue()+"\"");
+			}
+			value = 10*value + digit;
+		}
+		return (int)(negative ? -value : value);
+	}
+
+	/**
+	 * Parses the current token as a double.
+	 *
+	 * @return The value of the token.
+	 * @throws NumberFormatException if the token is not a number.
+	 */
+	public double doubleValue() {
+		return Double.parseDouble(stringValue());
+	}
+
+	/**
+	 * Decodes the current token as a {@link String}.
+	 *
+	 * @return The token.
+	 */
+	public String stringValue() {
+		byte[] bytes = new byte[end-start];
+		for(int i=start; i<end; i++) {
+			bytes[i-start] = buffer.get(i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Opens a file for streaming, inflating it if gzip compressed (see {@link Gzip}). Writes an error on the standard error if fails.
+	 *
+	 * @param filename Path to the file.
+	 * @return A streaming {@link LineTokenizer} over the file, or null if the file cannot be opened.
+	 */
+	public static LineTokenizer open(String filename) {
+		try {
+			InputStream in = Gzip.isCompressed(filename) ? Gzip.open(filename) : new FileInputStream(filename);
+			return new LineTokenizer(Channels.newChannel(in));
+		}catch(IOException e) {
+			System.err.println("Failed to read file: "+filename);
+		}
+		return null;
+	}
+
+	/**
+	 * Closes the channel of a streaming tokenizer. Writes an error on the standard error if fails.
+	 */
+	public void close() {
+		if(channel == null) {
+			return;
+		}
+		try {
+			channel.close();
+		}catch(IOException e) {
+			System.err.println("Failed to close file");
+		}
+	}
+
+	/**
+	 * Loads a whole file into a buffer: plain files are memory mapped, gzip compressed files are inflated in parallel when their layout allows it (see {@link Gzip#inflate(ByteBuffer)}).
+	 *
+	 * @param filename Path to the file.
+	 * @return The {@link ByteBuffer} holding the contents of the file, or null if the file has to be streamed instead (see {@link #open(String)}).
+	 */
+	public static ByteBuffer load(String filename) {
+		ByteBuffer buffer = map(filename);
+		if(buffer != null && Gzip.isCompressed(filename)) {
+			return Gzip.inflate(buffer);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Memory maps a file.
+	 *
+	 * @param filename Path to the file.
+	 * @return The {@link ByteBuffer} mapping the file, or null if the file cannot be mapped (e.g. it does not exist or exceeds 2GB).
+	 */
+	public static ByteBuffer map(String filename) {
+		try(FileChannel channel = new RandomAccessFile(filename, "r").getChannel()) {
+			if(channel.size() > Integer.MAX_VALUE) {
+				return null;
+			}
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}catch(IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Locates the beginning of a number of consecutive lines of a buffer.
+	 *
+	 * @param buffer The {@link ByteBuffer} holding the input.
+	 * @param from Position of the beginning of the first line.
+	 * @param lines The number of lines to locate.
+	 * @return An array of length lines+1, holding the position of the beginning of each line followed by the position after the last line.
+	 */
+	public static int[] lineStarts(ByteBuffer buffer, int from, int lines) {
+		int[] starts = new int[lines+1];
+		int limit = buffer.limit();
+		int i = from;
+		for(int l=0; l<lines; l++) {
+			starts[l] = i;
+			while(i < limit && buffer.get(i) != '\n') {
+				i++;
+			}
+			if(i < limit) {
+				i++;
+			}
+		}
+		starts[lines] = i;
+		return starts;
+	}
+
+	/**
+	 * Parses consecutive lines of a buffer. Inputs larger than {@link #PARALLEL_THRESHOLD} bytes are split into chunks of lines parsed by concurrent threads,
+	 * each with its own {@link LineTokenizer}.
+	 *
+	 * @param buffer The {@link ByteBuffer} holding the input.
+	 * @param starts Positions of the lines, as returned by {@link #lineStarts(ByteBuffer, int, int)}.
+	 * @param alignment Every chunk except the last one holds a multiple of this number of lines.
+	 * @param parser The {@link LineParser} invoked on each line.
+	 */
+	public static void parseLines(ByteBuffer buffer, int[] starts, int alignment, LineParser parser) {
+		int lines = starts.length-1;
+		int blocks = (lines+alignment-1)/alignment;
+		int N = Math.min(Runtime.getRuntime().availableProcessors(), blocks);
+		if(starts[lines]-starts[0] < PARALLEL_THRESHOLD || N <= 1) {
+			parseChunk(buffer, starts, 0, lines, parser);
+			return;
+		}
+		WorkerPool.shared().run(N, new WorkerPool.Task() {
+			public void run(int index) {
+				int from = alignment*Utils.getBase(N, index, blocks);
+				int to = Math.min(lines, from+alignment*Utils.getJobCount(N, index, blocks));
+				parseChunk(buffer, starts, from, to, parser);
+			}
+		});
+	}
+
+	/**
+	 * Parses a chunk of consecutive lines of a buffer.
+	 *
+	 * @param buffer The {@link ByteBuffer} holding the input.
+	 * @param starts Positions of the lines.
+	 * @param from Index of the first line of the chunk.
+	 * @param to Index after the last line of the chunk.
+	 * @param parser The {@link LineParser} invoked on each line.
+	 */
+	private static void parseChunk(ByteBuffer buffer, int[] starts, int from, int to, LineParser parser) {
+		LineTokenizer tokenizer = new LineTokenizer(buffer, starts[from], starts[to]);
+		for(int l=from; l<to; l++) {
+			tokenizer.nextLine();
+			parser.parse(tokenizer, l);
+		}
+	}
+
+	/**
+	 * Callback parsing a single line of an input.
+	 */
+	public interface LineParser {
+		/**
+		 * Parses the current line of a tokenizer.
+		 *
+		 * @param tokenizer The {@link LineTokenizer} positioned on the line.
+		 * @param line Index of the line.
+		 */
+		void parse(LineTokenizer tokenizer, int line);
+	}
+
+	/**
+	 * Returns the position after the current line, i.e. the beginning of the following one.
+	 *
+	 * @return The position.
+	 */
+	public int nextLinePosition() {
+		return next_line;
+	}
+}
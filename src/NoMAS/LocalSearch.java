@@ -0,0 +1,241 @@
+package NoMAS;
+import java.util.*;
+
+/**
+ * Refinement stage that improves the solutions returned by another {@link Algorithm} with a local search.
+ * Each solution is repeatedly replaced by the best subnetwork that differs from it by the addition, the removal or the swap of a single vertex,
+ * as long as it stays connected, has at most k vertices and scores better. Moves are scored from the patients covered by exactly one vertex of the solution,
+ * without building the moved subnetworks. Only the normalized log-rank objectives are refined, the solutions of other objectives are returned as they are.
+ *
+ * @author Federico Altieri
+ * @author Tommy V. Hansen
+ * @author Fabio Vandin
+ *
+ */
+public class LocalSearch implements Algorithm {
+	/**
+	 * {@link Model} containing input data.
+	 */
+	public Model model;
+	/**
+	 * {@link Configuration} containing algorithm parameters and system configuration.
+	 */
+	public Configuration config;
+	/**
+	 * {@link Algorithm} whose solutions are refined.
+	 */
+	public Algorithm algorithm;
+	/**
+	 * variable that tracks elapsed time.
+	 */
+	public double time_elapsed;
+
+	/**
+	 * Constructor with model, configuration and the algorithm to refine.
+	 *
+	 * @param model {@link Model} with input data.
+	 * @param config {@link Configuration} with algorithm configuration.
+	 * @param algorithm {@link Algorithm} whose solutions are refined.
+	 */
+	public LocalSearch(Model model, Configuration config, Algorithm algorithm) {
+		this.model = model;
+		this.config = config;
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 *{@inheritDoc}
+	 */
+	public double timeElapsed() {
+		return time_elapsed;
+	}
+
+	/**
+	 *{@inheritDoc}
+	 */
+	public Solution[] run() {
+		final Solution[] solutions = algorithm.run();
+		long start_time = Utils.getTime();
+		if(config.objective != Model.MAX_NLR && config.objective != Model.MIN_NLR) {
+			time_elapsed = algorithm.timeElapsed();
+			return solutions;
+		}
+		final int sign = (config.objective == Model.MIN_NLR) ? -1 : 1;
+		final Solution[] refined = new Solution[solutions.length];
+		final int N = Math.max(1, Math.min(config.N, solutions.length));
+		WorkerPool.shared().run(N, new WorkerPool.Task() {
+			public void run(int index) {
+				int base = Utils.getBase(N, index, solutions.length);
+				int limit = base + Utils.getJobCount(N, index, solutions.length);
+				for(int j=base; j<limit; j++) {
+					if(solutions[j] != null) {
+						refined[j] = refine(solutions[j], sign);
+					}
+				}
+			}
+		});
+		time_elapsed = algorithm.timeElapsed() + Utils.timeElapsed(start_time);
+		// Solutions refined into the same subnetwork are replaced by the best original ones
+		return SolutionList.merge(solutions.length, config.objective, refined, solutions);
+	}
+
+	/**
+	 * Applies the best improving move to a solution until none is left.
+	 *
+	 * @param solution The {@link Solution} instance to refine.
+	 * @param sign 1 to maximize the normalized log-rank statistic, -1 to minimize it.
+	 * @return The refined {@link Solution} instance, or the given one if no move improves it.
+	 */
+	public Solution refine(Solution solution, int sign) {
+		int length = solution.x.length;
+		int[] covered = new int[length];
+		int[] single = new int[length];
+		int[] only = new int[length];
+		while(true) {
+			ArrayList<Vertex> S = solution.vertices;
+			// Patients covered by at least one and by exactly one vertex of the solution
+			Arrays.fill(covered, 0);
+			Arrays.fill(single, 0);
+			for(Vertex v : S) {
+				for(int i=0; i<length; i++) {
+					single[i] = (single[i] & ~v.gene.x[i]) | (v.gene.x[i] & ~covered[i]);
+					covered[i] |= v.gene.x[i];
+				}
+			}
+			LinkedHashSet<Vertex> frontier = new LinkedHashSet<Vertex>();
+			for(Vertex v : S) {
+				for(Vertex u : v.neighbors) {
+					if(!S.contains(u)) {
+						frontier.add(u);
+					}
+				}
+			}
+			double best = sign*solution.nlr;
+			Vertex best_out = null;
+			Vertex best_in = null;
+			if(S.size() < config.k) {
+				for(Vertex in : frontier) {
+					double score = score(solution, covered, null, in, sign);
+					if(score > best) {
+						best = score;
+						best_out = null;
+						best_in = in;
+					}
+				}
+			}
+			for(Vertex out : S) {
+				for(int i=0; i<length; i++) {
+					only[i] = out.gene.x[i] & single[i];
+				}
+				if(S.size() > 1) {
+					double score = score(solution, covered, only, null, sign);
+					if(score > best && connected(moved(S, out, null))) {
+						best = score;
+						best_out = out;
+						best_in = null;
+					}
+				}
+				for(Vertex in : frontier) {
+					double score = score(solution, covered, only, in, sign);
+					if(score > best && connected(moved(S, out, in))) {
+						best = score;
+						best_out = out;
+						best_in = in;
+					}
+				}
+			}
+			if(best_out == null && best_in == null) {
+				return solution;
+			}
+			Solution moved = build(moved(S, best_out, best_in));
+			if(sign*moved.nlr <= sign*solution.nlr) {
+				return solution;
+			}
+			solution = moved;
+		}
+	}
+
+	/**
+	 * Scores the subnetwork obtained by a move, from the patients covered by the solution.
+	 *
+	 * @param solution The {@link Solution} instance.
+	 * @param covered The bitstring of the patients covered by the solution.
+	 * @param only The bitstring of the patients covered only by the removed vertex, or null if no vertex is removed.
+	 * @param in The added {@link Vertex}, or null if no vertex is added.
+	 * @param sign 1 to maximize the normalized log-rank statistic, -1 to minimize it.
+	 * @return The normalized log-rank statistic of the moved subnetwork, multiplied by sign.
+	 */
+	private double score(Solution solution, int[] covered, int[] only, Vertex in, int sign) {
+		double[] w = model.w;
+		double lr = solution.lr;
+		int m1 = solution.m1;
+		for(int i=0; i<covered.length; i++) {
+			int added = (in == null) ? 0 : in.gene.x[i] & ~covered[i];
+			int lost = (only == null) ? 0 : (in == null) ? only[i] : only[i] & ~in.gene.x[i];
+			int index = i*Bitstring.BITS;
+			while(added != 0) {
+				lr += w[index+Integer.numberOfTrailingZeros(added)];
+				m1++;
+				added &= added-1;
+			}
+			while(lost != 0) {
+				lr -= w[index+Integer.numberOfTrailingZeros(lost)];
+				m1--;
+				lost &= lost-1;
+			}
+		}
+		return sign*model.normalizeLogrankStatistic(lr, m1);
+	}
+
+	/**
+	 * Returns the vertices of a subnetwork after a move.
+	 *
+	 * @param vertices The vertices of the subnetwork.
+	 * @param out The removed {@link Vertex}, or null.
+	 * @param in The added {@link Vertex}, or null.
+	 * @return A new {@link ArrayList} with the moved vertices.
+	 */
+	private static ArrayList<Vertex> moved(ArrayList<Vertex> vertices, Vertex out, Vertex in) {
+		ArrayList<Vertex> moved = new ArrayList<Vertex>(vertices);
+		if(out != null) {
+			moved.remove(out);
+		}
+		if(in != null) {
+			moved.add(in);
+		}
+		return moved;
+	}
+
+	/**
+	 * Checks if a set of vertices induces a connected subnetwork.
+	 *
+	 * @param vertices The vertices.
+	 * @return true if every vertex is reached from the first one through vertices of the set.
+	 */
+	private static boolean connected(ArrayList<Vertex> vertices) {
+		ArrayList<Vertex> reached = new ArrayList<Vertex>();
+		reached.add(vertices.get(0));
+		for(int i=0; i<reached.size(); i++) {
+			for(Vertex u : reached.get(i).neighbors) {
+				if(vertices.contains(u) && !reached.contains(u)) {
+					reached.add(u);
+				}
+			}
+		}
+		return reached.size() == vertices.size();
+	}
+
+	/**
+	 * Builds the solution of a set of vertices.
+	 *
+	 * @param vertices The vertices.
+	 * @return A new {@link Solution} instance.
+	 */
+	private Solution build(ArrayList<Vertex> vertices) {
+		Solution solution = new Solution(vertices.get(0), model);
+		for(int i=1; i<vertices.size(); i++) {
+			solution = Solution.merge(solution, vertices.get(i), model);
+		}
+		return solution;
+	}
+}
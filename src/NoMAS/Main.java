@@ -1,4 +1,6 @@
 package NoMAS;
+import java.io.*;
+
 /**
  * Class with example of Main method for quick execution
  * 
@@ -23,6 +25,12 @@ public class Main {
 			import_file = args[index+1];
         }
         
+        // Solution files of the shards of an exhaustive enumeration to merge
+        String[] merge_files = null;
+        if((index = Utils.index(args, "merge")) != -1) {
+        	merge_files = args[index+1].split(",");
+        }
+        
         if((index = Utils.index(args, "crossval")) != -1) {
 			cValMode = true;
         }
@@ -30,9 +38,17 @@ public class Main {
      // CONSTRUCT MODEL
         if (!cValMode) {
 	 		Model model = null;
+	         // Directory of the binary model cache
+	         String cache_dir = null;
+	         if((index = Utils.index(args, "cache")) != -1) {
+	             cache_dir = args[index+1];
+	         }
 	         if(import_file != null) {
 	             // Load models from file
-	             model = Model.fromSolutionsFile(import_file);
+	             model = Model.fromSolutionsFile(import_file, cache_dir);
+	         }else if(merge_files != null) {
+	             // The shards share the network and data files, recorded in their solution files
+	             model = Model.fromSolutionsFile(merge_files[0], cache_dir);
 	         }else {
 	        	 if((index = Utils.index(args, "output")) != -1) {
 	        		 model = new Model(args[index+1]);
@@ -40,34 +56,38 @@ public class Main {
 	        	 else {
 	        		 model = new Model();
 	        	 	}
-	             // Load network file
+	             // Network file
 	             String graph_file = "networks/hint+hi2012.txt";
 	             if((index = Utils.index(args, "network")) != -1) {
 	                 graph_file = args[index+1];
 	             }
-	             Graph.loadGraph(graph_file, model);
-	             // Load data file
+	             // Data file
 	             String dataset_file = "datasets/ov.txt";
 	             if((index = Utils.index(args, "data")) != -1) {
 	                 dataset_file = args[index+1];
 	             }
-	             Mutations.loadMutationMatrix(dataset_file, model);
-	             // Remove mutations
+	             // Survival table, when the data file is a MAF file
+	             String survival_file = null;
+	             if((index = Utils.index(args, "survival")) != -1) {
+	                 survival_file = args[index+1];
+	             }
+	             // Mutation threshold
 	             double threshold = 3.0;
 	             if((index = Utils.index(args, "threshold")) != -1) {
 	                 threshold = Double.parseDouble(args[index+1]);
 	             }
-	             Mutations.removeMutations(model, threshold);
-	 			// Remove mutations in genes to be ignored
+	 			// Genes whose mutations should be ignored
+	 			String ignore_file = null;
 	 			if((index = Utils.index(args, "ignore")) != -1) {
-	 				Mutations.removeMutationsInGenes(model, args[index+1]);
+	 				ignore_file = args[index+1];
 	 			}
-	             // Reduce graph
+	             // Reduction conditions
 	             int flags = Model.HASMUTATIONS | Model.INTERNAL;
 	             if((index = Utils.index(args, "retain")) != -1) {
 	                 flags = Integer.parseInt(args[index+1]);
 	             }
-	             Graph.reduce(model, flags);
+	             // Load, clean and reduce (or restore from the cache)
+	             Model.construct(model, graph_file, dataset_file, survival_file, threshold, ignore_file, flags, cache_dir);
 	         }
 	 		
 	 		// CONSTRUCT CONFIGURATION
@@ -98,9 +118,13 @@ public class Main {
 	 				algorithm = new GreedyK(model, config);
 	 			}else if(alg_name.equals("GreedyDFS")) {
 	 				algorithm = new GreedyDFS(model, config);
+	 			}else if(alg_name.equals("BeamSearch")) {
+	 				algorithm = new BeamSearch(model, config);
 	 			}else if(alg_name.equals("Additive")) {
 	 				algorithm = new NoMASAdditive(model, config);
 	 			}else if(alg_name.equals("Exhaustive")) {
+	                 // The progress is saved next to the output file, and resumed if the run is restarted
+	                 config.checkpoint = ((index = Utils.index(args, "output")) != -1 ? args[index+1] : "./solution")+".ckpt";
 	                 algorithm = new ExhaustiveEnumerator(model, config);
 	             }
 	             else {
@@ -110,6 +134,9 @@ public class Main {
 	 		}else {
 	 			algorithm = new NoMAS(model, config);
 	 		}
+	 		if(config.refine) {
+	 			algorithm = new LocalSearch(model, config, algorithm);
+	 		}
 	 		
 	 		// LOAD SEED VERTICES FROM FILE
 	 		if((index = Utils.index(args, "seeds")) != -1) {
@@ -121,12 +148,18 @@ public class Main {
 	         Solution[] solutions = null;
 	         if(import_file != null) {
 	             solutions = SolutionList.fromFile(model, import_file);
+	         }else if(merge_files != null) {
+	             solutions = ExhaustiveEnumerator.mergeShards(model, config, merge_files);
 	         }else {
 	             config.progress = true;
 	             System.err.println("Solving Max k-set Log-rank.");
 	             solutions = algorithm.run();
 	             System.err.println("Done. Time elapsed: "+algorithm.timeElapsed());
 	         }
+	         // The checkpoint of the run is deleted once its results are written, runs on permuted data are not checkpointed and do not cache their seeds
+	         String checkpoint = (import_file == null && merge_files == null) ? config.checkpoint : null;
+	         config.checkpoint = null;
+	         config.permuted = true;
 	 		
 	 		// If p-value estimate
 	 		if((index = Utils.index(args, "pvalue")) != -1) {
@@ -168,6 +201,9 @@ public class Main {
 	         out.stream.flush();
 	         out.stream.close();
 	         Graphic.render(outname, model, solutions);
+	         if(checkpoint != null) {
+	             new File(checkpoint).delete();
+	         }
 	         
 	         // Output mutation/survival information
 	 		if((index = Utils.index(args, "mutinfo")) != -1) {
@@ -194,23 +230,22 @@ public class Main {
 	        	
 	        }else {
 	        	if((index = Utils.index(args, "output")) != -1) {
-	        		train = new Model(args[index+1]);
-	        		control = new Model(args[index+1]);
 	        		model = new Model(args[index+1]);
 		            }
 	        	 else {
-	        		train = new Model();
-	 	        	control = new Model();
 	 	        	model = new Model();
-	        	 	}	        		        	
+	        	 	}
+	        	// Train and control are views of the model of all patients, sharing its log
+	        	train = new Model(model.log);
+	        	control = new Model(model.log);
 	            // Load network file
 	            String graph_file = "networks/hint+hi2012.txt";
 	            if((index = Utils.index(args, "network")) != -1) {
 	                graph_file = args[index+1];
 	            }
-	            Graph.loadGraph(graph_file, train);
-	            Graph.loadGraph(graph_file, control);
 	            Graph.loadGraph(graph_file, model);
+	            Graph.copy(model, train);
+	            Graph.copy(model, control);
 	            
 	            // Load data file
 	            String dataset_file = "datasets/demoDataset.txt";
@@ -241,26 +276,61 @@ public class Main {
 	            if((index = Utils.index(args, "proportion")) != -1) {
 	            	proportion = Double.parseDouble(args[index+1]);
 	            }
-	            Mutations.loadMutationMatrixes(dataset_file, train, control, timesplits, splits, proportion, seed);
-	            Mutations.loadMutationMatrix(dataset_file, model);
-	            	            
 	            // Remove mutations
 	            double threshold = 3.0;
 	            if((index = Utils.index(args, "threshold")) != -1) {
 	                threshold = Double.parseDouble(args[index+1]);
 	            }
-	            Mutations.removeMutations(train, threshold);
-	            //Mutations.removeMutations(control, threshold);
-				// Remove mutations in genes to be ignored
+				// Genes whose mutations should be ignored
+				String ignore_file = null;
 				if((index = Utils.index(args, "ignore")) != -1) {
-					Mutations.removeMutationsInGenes(train, args[index+1]);
-//					Mutations.removeMutationsInGenes(control, args[index+1]);
+					ignore_file = args[index+1];
 				}
 	            // Reduce graph
 	            int flags = Model.HASMUTATIONS | Model.INTERNAL;
 	            if((index = Utils.index(args, "retain")) != -1) {
 	                flags = Integer.parseInt(args[index+1]);
 	            }
+	            Mutations.loadMutationMatrix(dataset_file, model);
+	            
+	            // Repeated holdout or K-fold cross-validation, with all splits built from the loaded data
+	            int repeats = 1;
+	            if((index = Utils.index(args, "repeats")) != -1) {
+	            	repeats = Integer.parseInt(args[index+1]);
+	            }
+	            int folds = 0;
+	            if((index = Utils.index(args, "folds")) != -1) {
+	            	folds = Integer.parseInt(args[index+1]);
+	            }
+	            if(repeats > 1 || folds > 1) {
+	            	int samples = 10000; //default
+	            	if((index = Utils.index(args, "pvalue")) != -1) {
+	            		samples = Integer.parseInt(args[index+1]);
+	            	}
+	            	int[][] groups = (folds > 1) ? CrossValidation.kfoldGroups(model.times, timesplits, splits, folds, seed)
+	            			: CrossValidation.holdoutGroups(model.times, timesplits, splits, proportion, seed, repeats);
+	            	System.err.println("Running cross-validation on "+groups.length+" splits.");
+	            	Solution[][] results = CrossValidation.run(model, args, groups, threshold, ignore_file, flags, samples);
+	            	System.err.println("Done.");
+	            	String outname = "./solution";
+	            	if((index = Utils.index(args, "output")) != -1) {
+	            		outname = args[index+1];
+	            	}
+	            	Output out = new Output(outname+"_crossval.txt", false);
+	            	CrossValidation.summary(out.stream, model, groups, results);
+	            	out.stream.flush();
+	            	out.stream.close();
+	            	return;
+	            }
+	            
+	            Mutations.splitMutationMatrix(model, train, control, timesplits, splits, proportion, seed);
+	            Mutations.removeMutations(train, threshold);
+	            //Mutations.removeMutations(control, threshold);
+				// Remove mutations in genes to be ignored
+				if(ignore_file != null) {
+					Mutations.removeMutationsInGenes(train, ignore_file);
+//					Mutations.removeMutationsInGenes(control, ignore_file);
+				}
 	            Graph.reduce(train, flags);
 //	            Graph.reduce(control, flags);
 	        }        
@@ -274,6 +344,9 @@ public class Main {
 			// CONTRUCT ALGORITHM
 			Algorithm algorithm = null;
 			algorithm = new NoMAS(train, config);
+			if(config.refine) {
+				algorithm = new LocalSearch(train, config, algorithm);
+			}
 			
 			// LOAD SEED VERTICES FROM FILE
 			if((index = Utils.index(args, "seeds")) != -1) {
@@ -1,4 +1,5 @@
 package NoMAS;
+import java.util.*;
 import java.io.*;
 
 /**
@@ -60,6 +61,10 @@ public class Model {
 	 * array of {@link Vertex} instances representing the gene network
 	 */
 	public Vertex[] vertices;
+	/**
+	 * Index of the vertices by gene symbol (see {@link Graph#indexSymbols(Model)}). Rebuilt whenever the vertices change.
+	 */
+	public HashMap<String, Vertex> symbols;
 	/**
 	 * Path to the file of gene network
 	 */
@@ -68,6 +73,10 @@ public class Model {
 	 * Path to the file of the mutation data.
 	 */
 	public String matrix_file;
+	/**
+	 * Path to the survival table, when the mutation data is a MAF file (see {@link Mutations#loadMAF(String, String, Model)}), null otherwise.
+	 */
+	public String survival_file;
 	/**
 	 * {@link Output} instance that performs the log output
 	 */
@@ -89,6 +98,15 @@ public class Model {
 		log = new Output(logname+"Log.txt", false);
 	}
 	
+	/**
+	 * Constructor that shares the log of another model (e.g. the views of a dataset used in cross-validation).
+	 * 
+	 * @param log The {@link Output} instance of the log.
+	 */
+	public Model(Output log) {
+		this.log = log;
+	}
+	
 	/**
 	 * Normalizes the logrank statistic to the variance of the measurements 
 	 * 
@@ -97,10 +115,37 @@ public class Model {
 	 * @return the normalized logrank value
 	 */
 	public double normalizeLogrankStatistic(double lr, int m1) {
-		int m2 = m-m1;
-		double variance = norm_coef*((double)(m1*m2)/(double)(m*(m-1)));
+		double variance = logrankVariance(m1);
 		return (variance == 0.0) ? Double.MIN_VALUE : lr/Math.sqrt(variance);
 	}
+	
+	/**
+	 * Computes the variance of the logrank statistic of a population.
+	 * 
+	 * @param m1 the number of patients of the population
+	 * @return the variance
+	 */
+	public double logrankVariance(int m1) {
+		int m2 = m-m1;
+		return norm_coef*((double)(m1*m2)/(double)(m*(m-1)));
+	}
+	
+	/**
+	 * Bounds from above the normalized logrank statistic of the populations whose logrank statistic is at most lr and whose patients are between lo and hi.
+	 * Since the variance is concave in the number of patients, its minimum over the range is at one of the ends.
+	 * 
+	 * @param lr the upper bound of the logrank statistic
+	 * @param lo the lowest number of patients
+	 * @param hi the highest number of patients
+	 * @return the upper bound of the normalized logrank value (at least Double.MIN_VALUE, the value of the populations with no variance)
+	 */
+	public double normalizedLogrankBound(double lr, int lo, int hi) {
+		if(lr <= 0.0) {
+			return Double.MIN_VALUE;
+		}
+		double variance = Math.min(logrankVariance(lo), logrankVariance(hi));
+		return (variance == 0.0) ? Double.POSITIVE_INFINITY : lr/Math.sqrt(variance);
+	}
 
 	/**
 	 * Estimates the p-values for each gene when logrank statistic is computed considering only its mutations.
@@ -150,19 +195,75 @@ public class Model {
 	 * @return The composed {@link Model} instance
 	 */
 	public static Model fromSolutionsFile(String filename) {
+		return fromSolutionsFile(filename, null);
+	}
+
+	/**
+	 * Creates a new instance of {@link Model} starting from a given instances of {@link Solution} instances written in file, as {@link #fromSolutionsFile(String)},
+	 * restoring the reduced model from the cache directory when possible (see {@link ModelCache}).
+	 * 
+	 * @param filename path to file to read
+	 * @param cache_dir path to the cache directory, null to disable the cache
+	 * @return The composed {@link Model} instance
+	 */
+	public static Model fromSolutionsFile(String filename, String cache_dir) {
 		Model model = new Model();
 		BufferedReader file = Utils.bufferedReader(filename);
 		String line = Utils.readLine(file);
 		while(!line.startsWith("Graph file")) {
 			line = Utils.readLine(file);
 		}
-		Graph.loadGraph(line.split("\t")[1], model);
-		Mutations.loadMutationMatrix(Utils.readLine(file).split("\t")[1], model);
-		Mutations.removeMutations(model, Double.parseDouble(Utils.readLine(file).split("\t")[1]));
-		Graph.reduce(model, Integer.parseInt(Utils.readLine(file).split("\t")[1]));
+		String graph_file = line.split("\t")[1];
+		String matrix_file = Utils.readLine(file).split("\t")[1];
+		double threshold = Double.parseDouble(Utils.readLine(file).split("\t")[1]);
+		int conditions = Integer.parseInt(Utils.readLine(file).split("\t")[1]);
+		String survival_file = null;
+		line = Utils.readLine(file);
+		if(line != null && line.startsWith("Survival file")) {
+			survival_file = line.split("\t")[1];
+		}
+		Utils.close(file);
+		construct(model, graph_file, matrix_file, survival_file, threshold, null, conditions, cache_dir);
 		return model;
 	}
 
+	/**
+	 * Builds the reduced model from the network and data files: loads the graph and the mutation matrix (from a data file, or from a MAF file and a survival table), removes mutations below the threshold and in the ignored genes, and reduces the graph.
+	 * When a cache directory is given, the reduced model is restored from the cache if present, and stored to it otherwise.
+	 * 
+	 * @param model Empty {@link Model} instance to fill
+	 * @param graph_file path to the network file
+	 * @param matrix_file path to the mutation data file, or to a MAF file if a survival table is given
+	 * @param survival_file path to the survival table accompanying a MAF file, null if the mutation data file is in the data format
+	 * @param threshold mutation threshold (see {@link Mutations#removeMutations(Model, double)})
+	 * @param ignore_file path to the file of genes whose mutations should be ignored, null if none
+	 * @param conditions reduction conditions of the graph (see {@link Graph#reduce(Model, int)})
+	 * @param cache_dir path to the cache directory, null to disable the cache
+	 */
+	public static void construct(Model model, String graph_file, String matrix_file, String survival_file, double threshold, String ignore_file, int conditions, String cache_dir) {
+		String key = null;
+		if(cache_dir != null) {
+			key = ModelCache.key(graph_file, matrix_file, survival_file, ignore_file, threshold, conditions);
+			if(key != null && ModelCache.load(ModelCache.path(cache_dir, key), key, model)) {
+				return;
+			}
+		}
+		Graph.loadGraph(graph_file, model);
+		if(survival_file != null) {
+			Mutations.loadMAF(matrix_file, survival_file, model);
+		}else {
+			Mutations.loadMutationMatrix(matrix_file, model);
+		}
+		Mutations.removeMutations(model, threshold);
+		if(ignore_file != null) {
+			Mutations.removeMutationsInGenes(model, ignore_file);
+		}
+		Graph.reduce(model, conditions);
+		if(key != null) {
+			ModelCache.store(ModelCache.path(cache_dir, key), key, model);
+		}
+	}
+
 	/**
 	 * Implementation of the policy of maximization of normalized log-rank statistic.
 	 */
@@ -172,6 +273,9 @@ public class Model {
 			if(a.nlr < b.nlr) return -1;
 			return 0;
 		}
+		public double key(Solution s) {
+			return s.nlr;
+		}
 		public String getName() {
 			return "MAX_NLR";
 		}
@@ -186,6 +290,9 @@ public class Model {
 			if(a.nlr > b.nlr) return -1;
 			return 0;
 		}
+		public double key(Solution s) {
+			return -s.nlr;
+		}
 		public String getName() {
 			return "MIN_NLR";
 		}
@@ -200,6 +307,9 @@ public class Model {
 			if(a.score < b.score) return -1;
 			return 0;
 		}
+		public double key(Solution s) {
+			return s.score;
+		}
 		public String getName() {
 			return "SCORE_RED";
 		}
@@ -214,6 +324,9 @@ public class Model {
 			if(a.score < b.score) return -1;
 			return 0;
 		}
+		public double key(Solution s) {
+			return s.score;
+		}
 		public String getName() {
 			return "SCORE_INC";
 		}
@@ -0,0 +1,342 @@
+package NoMAS;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.util.zip.*;
+
+/**
+ * Versioned binary cache of a reduced {@link Model}. The cache stores the network in compressed sparse row form, the gene symbols, the mutation bitsets and the survival data,
+ * so that a model can be restored without parsing the input files, removing mutations and reducing the graph again. A CRC32 checksum of the contents ends the file, so that corrupted caches are detected and rebuilt.
+ * A cache file is identified by a key derived from the contents of the input files and from the parameters used to build the model.
+ * All methods are static.
+ *
+ * @author Federico Altieri
+ * @author Tommy V. Hansen
+ * @author Fabio Vandin
+ *
+ */
+public class ModelCache {
+	/**
+	 * Magic number written at the beginning of every cache file ("NMC1").
+	 */
+	public static final int MAGIC = 0x4E4D4331;
+	/**
+	 * Version of the cache layout. Cache files with a different version are ignored and rebuilt.
+	 */
+	public static final int VERSION = 3;
+	/**
+	 * File extension of cache files.
+	 */
+	public static final String EXTENSION = ".nmc";
+
+	/**
+	 * Computes the key identifying a reduced model, by hashing the contents of the input files together with the mutation threshold and the reduction conditions.
+	 *
+	 * @param graph_file Path to the network file.
+	 * @param matrix_file Path to the mutation data file.
+	 * @param survival_file Path to the survival table of a MAF mutation data file, null if none.
+	 * @param ignore_file Path to the file of genes whose mutations are ignored, null if none.
+	 * @param threshold Mutation threshold.
+	 * @param conditions Reduction conditions of the graph.
+	 * @return The key, as an hexadecimal {@link String}, or null if an input file cannot be read, so that the model is not cached and its loader reports the error.
+	 */
+	public static String key(String graph_file, String matrix_file, String survival_file, String ignore_file, double threshold, int conditions) {
+		MessageDigest digest = null;
+		try {
+			digest = MessageDigest.getInstance("MD5");
+		}catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		digest.update(ByteBuffer.allocate(16).putInt(VERSION).putInt(conditions).putDouble(threshold).array());
+		if(!update(digest, graph_file) || !update(digest, matrix_file)
+				|| (survival_file != null && !update(digest, survival_file))
+				|| (ignore_file != null && !update(digest, ignore_file))) {
+			return null;
+		}
+		StringBuilder key = new StringBuilder();
+		for(byte b : digest.digest()) {
+			key.append(String.format("%02x", b));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Returns the path of the cache file with the given key inside the given directory.
+	 *
+	 * @param directory The cache directory.
+	 * @param key The key of the model (see {@link #key(String, String, String, String, double, int)}).
+	 * @return The path of the cache file.
+	 */
+	public static String path(String directory, String key) {
+		return directory+"/"+key+EXTENSION;
+	}
+
+	/**
+	 * Restores a reduced model from a cache file. The file is memory mapped, its checksum verified and its contents decoded in bulk.
+	 *
+	 * @param filename Path to the cache file.
+	 * @param key Expected key of the cache file.
+	 * @param model Empty {@link Model} instance to fill.
+	 * @return true if the model was restored, false if the file does not exist or is not a valid cache for the given key.
+	 */
+	public static boolean load(String filename, String key, Model model) {
+		File file = new File(filename);
+		if(!file.isFile()) {
+			return false;
+		}
+		try(FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if(buffer.limit() < 4) {
+				throw new BufferUnderflowException();
+			}
+			int checksum = buffer.getInt(buffer.limit()-4);
+			buffer.limit(buffer.limit()-4);
+			CRC32 crc = new CRC32();
+			crc.update(buffer.duplicate());
+			if(checksum != (int)crc.getValue()) {
+				throw new IllegalStateException("Checksum mismatch");
+			}
+			if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION || !readString(buffer).equals(key)) {
+				return false;
+			}
+			model.graph_file = readString(buffer);
+			model.matrix_file = readString(buffer);
+			model.survival_file = readString(buffer);
+			model.n = buffer.getInt();
+			model.m = buffer.getInt();
+			model.reduction_conditions = buffer.getInt();
+			model.mutation_threshold = buffer.getDouble();
+			model.norm_coef = buffer.getDouble();
+			// Every vertex and patient takes some bytes, so that corrupted sizes are rejected before allocating for them
+			if(model.n < 0 || model.m < 0 || model.n > buffer.remaining() || model.m > buffer.remaining()) {
+				throw new BufferUnderflowException();
+			}
+			model.c = readInts(buffer, model.m);
+			model.times = readDoubles(buffer, model.m);
+			model.w = readDoubles(buffer, model.m);
+			model.patient_ids = new String[model.m];
+			for(int i=0; i<model.m; i++) {
+				model.patient_ids[i] = readString(buffer);
+			}
+			model.vertices = new Vertex[model.n];
+			model.genes = new Gene[model.n];
+			for(int i=0; i<model.n; i++) {
+				model.vertices[i] = new Vertex();
+				model.genes[i] = new Gene();
+				model.vertices[i].id = i;
+				model.vertices[i].gene = model.genes[i];
+				model.genes[i].symbol = readString(buffer);
+			}
+			int[] m1 = readInts(buffer, model.n);
+			int[] degree = readInts(buffer, model.n);
+			int[] offsets = readInts(buffer, model.n+1);
+			int[] adjacency = readInts(buffer, offsets[model.n]);
+			int words = buffer.getInt();
+			IntBuffer bitsets = buffer.asIntBuffer();
+			if(words < 0 || (long)words*model.n > bitsets.remaining()) {
+				throw new BufferUnderflowException();
+			}
+			for(int i=0; i<model.n; i++) {
+				Vertex v = model.vertices[i];
+				v.neighbors.ensureCapacity(offsets[i+1]-offsets[i]);
+				for(int j=offsets[i]; j<offsets[i+1]; j++) {
+					v.neighbors.add(model.vertices[adjacency[j]]);
+				}
+				// The degree is kept as stored, since graph reduction does not update it
+				v.degree = degree[i];
+				model.genes[i].m1 = m1[i];
+				model.genes[i].x = new int[words];
+				bitsets.get(model.genes[i].x);
+			}
+			Graph.indexSymbols(model);
+		}catch(IOException | RuntimeException e) {
+			// A truncated or corrupted cache is rebuilt from the input files
+			System.err.println("Failed to read model cache: "+filename);
+			return false;
+		}
+		model.log.stream.println("[Cache] Model loaded from "+filename);
+		model.log.stream.println("[Graph] File name: "+model.graph_file);
+		Graph.printInformation(model, "\t");
+		model.log.stream.println("[Mutation matrix] File name = "+model.matrix_file);
+		if(model.survival_file != null) {
+			model.log.stream.println("\tSurvival file = "+model.survival_file);
+		}
+		Mutations.printInformation(model, "\t");
+		return true;
+	}
+
+	/**
+	 * Writes a reduced model to a cache file.
+	 *
+	 * @param filename Path to the cache file.
+	 * @param key The key of the model (see {@link #key(String, String, String, String, double, int)}).
+	 * @param model The {@link Model} to store.
+	 */
+	public static void store(String filename, String key, Model model) {
+		filename = Output.verifyPath(filename);
+		File tmp = Output.temporaryFile(filename);
+		if(tmp == null) {
+			System.err.println("Failed to write model cache: "+filename);
+			return;
+		}
+		try(CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)), new CRC32());
+				DataOutputStream out = new DataOutputStream(checked)) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeString(out, key);
+			writeString(out, model.graph_file);
+			writeString(out, model.matrix_file);
+			writeString(out, model.survival_file);
+			out.writeInt(model.n);
+			out.writeInt(model.m);
+			out.writeInt(model.reduction_conditions);
+			out.writeDouble(model.mutation_threshold);
+			out.writeDouble(model.norm_coef);
+			for(int i=0; i<model.m; i++) {
+				out.writeInt(model.c[i]);
+			}
+			for(int i=0; i<model.m; i++) {
+				out.writeDouble(model.times[i]);
+			}
+			for(int i=0; i<model.m; i++) {
+				out.writeDouble(model.w[i]);
+			}
+			for(int i=0; i<model.m; i++) {
+				writeString(out, model.patient_ids[i]);
+			}
+			for(int i=0; i<model.n; i++) {
+				writeString(out, model.genes[i].symbol);
+			}
+			for(int i=0; i<model.n; i++) {
+				out.writeInt(model.genes[i].m1);
+			}
+			for(int i=0; i<model.n; i++) {
+				out.writeInt(model.vertices[i].degree);
+			}
+			int offset = 0;
+			out.writeInt(offset);
+			for(int i=0; i<model.n; i++) {
+				offset += model.vertices[i].neighbors.size();
+				out.writeInt(offset);
+			}
+			for(int i=0; i<model.n; i++) {
+				for(Vertex u : model.vertices[i].neighbors) {
+					out.writeInt(u.id);
+				}
+			}
+			int words = Bitstring.getEmpty(model.m).length;
+			out.writeInt(words);
+			for(int i=0; i<model.n; i++) {
+				for(int word : model.genes[i].x) {
+					out.writeInt(word);
+				}
+			}
+			out.writeInt((int)checked.getChecksum().getValue());
+		}catch(IOException e) {
+			System.err.println("Failed to write model cache: "+filename);
+			tmp.delete();
+			return;
+		}
+		// Moved at the end, so that concurrent runs never observe a partial cache
+		if(!Output.replace(tmp, filename)) {
+			System.err.println("Failed to write model cache: "+filename);
+			return;
+		}
+		model.log.stream.println("[Cache] Model stored to "+filename);
+		model.log.stream.flush();
+	}
+
+	/**
+	 * Feeds the contents of a file to a {@link MessageDigest}.
+	 *
+	 * @param digest The {@link MessageDigest} to update.
+	 * @param filename Path to the file.
+	 * @return false if the file cannot be read.
+	 */
+	private static boolean update(MessageDigest digest, String filename) {
+		digest.update(filename.getBytes(StandardCharsets.UTF_8));
+		try(FileChannel channel = new FileInputStream(filename).getChannel()) {
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+			while(channel.read(buffer) != -1) {
+				buffer.flip();
+				digest.update(buffer);
+				buffer.clear();
+			}
+		}catch(IOException e) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads an array of integers from the current position of a buffer and advances the position.
+	 *
+	 * @param buffer The buffer.
+	 * @param length Number of integers to read.
+	 * @return The array.
+	 */
+	private static int[] readInts(ByteBuffer buffer, int length) {
+		if(length < 0 || length > buffer.remaining()/4) {
+			throw new BufferUnderflowException();
+		}
+		int[] A = new int[length];
+		buffer.asIntBuffer().get(A);
+		buffer.position(buffer.position()+4*length);
+		return A;
+	}
+
+	/**
+	 * Reads an array of doubles from the current position of a buffer and advances the position.
+	 *
+	 * @param buffer The buffer.
+	 * @param length Number of doubles to read.
+	 * @return The array.
+	 */
+	private static double[] readDoubles(ByteBuffer buffer, int length) {
+		if(length < 0 || length > buffer.remaining()/8) {
+			throw new BufferUnderflowException();
+		}
+		double[] A = new double[length];
+		buffer.asDoubleBuffer().get(A);
+		buffer.position(buffer.position()+8*length);
+		return A;
+	}
+
+	/**
+	 * Reads a length-prefixed UTF-8 {@link String} from the current position of a buffer.
+	 *
+	 * @param buffer The buffer.
+	 * @return The {@link String}, or null if it was stored as null.
+	 */
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if(length < 0) {
+			return null;
+		}
+		if(length > buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes a length-prefixed UTF-8 {@link String}.
+	 *
+	 * @param out The stream to write to.
+	 * @param s The {@link String} to write (may be null).
+	 * @throws IOException if the stream fails.
+	 */
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		if(s == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
@@ -1,6 +1,7 @@
 package NoMAS;
 import java.util.*;
 import java.io.*;
+import java.nio.*;
 
 /**
  * A container of static methods for mutation matrixes creation and manipulation.
@@ -14,64 +15,239 @@ public class Mutations {
 	
 	/**
 	 * Constructs mutation matrix and censoring information array.
+	 * The file is memory mapped and tokenized without decoding lines into {@link String} instances; large files are parsed by concurrent threads.
 	 *
 	 * @param filename Path to the file containing the data to load.
 	 * @param model {@link Model} instance to fill with the loaded data.
 	 */
 	public static void loadMutationMatrix(String filename, Model model) {
-		BufferedReader reader = Utils.bufferedReader(filename);
-		String line = Utils.readLine(reader);
-		model.m = Integer.parseInt(line);
+		ByteBuffer buffer = LineTokenizer.load(filename);
+		LineTokenizer tokenizer = (buffer != null) ? new LineTokenizer(buffer, 0, buffer.limit()) : LineTokenizer.open(filename);
+		tokenizer.nextLine();
+		tokenizer.nextToken();
+		model.m = tokenizer.intValue();
 		model.c = new int[model.m];
 		model.times = new double[model.m];
 		model.patient_ids = new String[model.m];
 		
-		HashMap<String, ArrayList<Gene>> map = new HashMap<String, ArrayList<Gene>>();
+		SymbolTable table = new SymbolTable(model.n);
+		Gene[][] map = geneTable(model, table);
+		
+		LineTokenizer.LineParser parser = new LineTokenizer.LineParser() {
+			public void parse(LineTokenizer tokenizer, int i) {
+				tokenizer.nextToken();
+				model.patient_ids[i] = tokenizer.stringValue();
+				tokenizer.nextToken();
+				model.c[i] = tokenizer.intValue();
+				tokenizer.nextToken();
+				model.times[i] = tokenizer.doubleValue();
+				while(tokenizer.nextToken()) {
+					if(tokenizer.isEmpty()) {
+						continue;
+					}
+					int index = table.get(tokenizer.buffer(), tokenizer.start, tokenizer.end);
+					if(index >= 0) {
+						for(Gene gene : map[index]) {
+							Bitstring.setBit(gene.x, i);
+						}
+					}
+				}
+			}
+		};
+		if(buffer != null) {
+			// Chunks of patients are aligned to bitstring words, so that threads never write to the same word
+			int[] starts = LineTokenizer.lineStarts(buffer, tokenizer.nextLinePosition(), model.m);
+			LineTokenizer.parseLines(buffer, starts, Bitstring.BITS, parser);
+		}else {
+			for(int i=0; i<model.m; i++) {
+				tokenizer.nextLine();
+				parser.parse(tokenizer, i);
+			}
+			tokenizer.close();
+		}
+		
+		for(int i=0; i<model.n; i++) {
+			model.genes[i].m1 = Bitstring.numberOfSetBits(model.genes[i].x);
+		}
+		
+		model.w = Censoring.computeWeights(model.c);
+		model.norm_coef = Censoring.computeNormCoef(model.c);
+		model.matrix_file = filename;
+		
+		model.log.stream.println("[Mutation matrix] File name = "+model.matrix_file);
+		printCtrlInformation(model, "\t");
+	}
+	
+	/**
+	 * Allocates the empty mutation bitsets of the genes of a model and indexes the genes by symbol. Genes sharing a symbol are mutated together.
+	 *
+	 * @param model {@link Model} instance whose genes are indexed; the number of patients must be set.
+	 * @param table Empty {@link SymbolTable} filled with the symbols of the genes.
+	 * @return For each value of the table, the genes with the symbol.
+	 */
+	private static Gene[][] geneTable(Model model, SymbolTable table) {
+		ArrayList<ArrayList<Gene>> lists = new ArrayList<ArrayList<Gene>>();
 		for(int i=0; i<model.n; i++) {
 			model.genes[i].x = Bitstring.getEmpty(model.m);
-			
-			ArrayList<Gene> list = map.get(model.genes[i].symbol);
-			if(list == null) {
-				list = new ArrayList<Gene>();
-				list.add(model.genes[i]);
-				map.put(model.genes[i].symbol, list);
-			}else {
-				list.add(model.genes[i]);
+			int index = table.putIfAbsent(model.genes[i].symbol, lists.size());
+			if(index == lists.size()) {
+				lists.add(new ArrayList<Gene>());
 			}
+			lists.get(index).add(model.genes[i]);
 		}
-		int count = 0;
+		Gene[][] map = new Gene[lists.size()][];
+		for(int i=0; i<map.length; i++) {
+			map[i] = lists.get(i).toArray(new Gene[0]);
+		}
+		return map;
+	}
+	
+	/**
+	 * Constructs mutation matrix and censoring information array from a mutation annotation format (MAF) file and a survival table, in a single streaming pass over the MAF file.
+	 * The survival table holds one line per patient with patient id, censoring information and survival time separated by tabs (as the first three columns of a data file); lines that do not parse are skipped.
+	 * Patients are sorted by survival time. Each MAF row sets the bit of the patient in the bitsets of the genes with symbol "Hugo_Symbol".
+	 * The patient of a row is the one whose id equals "Tumor_Sample_Barcode", or else the longest one that is a prefix of it ending before a '-' (e.g. TCGA-04-1331 for TCGA-04-1331-01A-01W).
+	 * Rows of unknown genes or patients are ignored.
+	 *
+	 * @param maf_file Path to the MAF file.
+	 * @param survival_file Path to the survival table.
+	 * @param model {@link Model} instance to fill with the loaded data.
+	 */
+	public static void loadMAF(String maf_file, String survival_file, Model model) {
+		ArrayList<String> ids = new ArrayList<String>();
+		ArrayList<Integer> censoring = new ArrayList<Integer>();
+		ArrayList<Double> survival = new ArrayList<Double>();
+		LineTokenizer tokenizer = LineTokenizer.open(survival_file);
+		while(tokenizer.nextLine()) {
+			if(!tokenizer.nextToken() || tokenizer.isEmpty()) {
+				continue;
+			}
+			String id = tokenizer.stringValue();
+			try {
+				tokenizer.nextToken();
+				int c = tokenizer.intValue();
+				tokenizer.nextToken();
+				double time = tokenizer.doubleValue();
+				ids.add(id);
+				censoring.add(c);
+				survival.add(time);
+			}catch(NumberFormatException e) {
+				// Header or malformed line
+			}
+		}
+		tokenizer.close();
+		
+		model.m = ids.size();
+		model.c = new int[model.m];
+		model.times = new double[model.m];
+		model.patient_ids = new String[model.m];
+		double[] times = new double[model.m];
 		for(int i=0; i<model.m; i++) {
-			String[] parts = Utils.readLine(reader).split("\t");
-			model.patient_ids[i] = parts[0];
-			model.c[i] = Integer.parseInt(parts[1]);
-			model.times[i] = Double.parseDouble(parts[2]);
-			for(int j=3; j<parts.length; j++) {
-				ArrayList<Gene> list = map.get(parts[j]);
-				if(list != null) {
-					for(Gene gene : list) {
-						Bitstring.setBit(gene.x, i);
-						count++;
+			times[i] = survival.get(i);
+		}
+		int[] indexes = sorter(times);
+		SymbolTable patients = new SymbolTable(model.m);
+		for(int i=0; i<model.m; i++) {
+			model.patient_ids[i] = ids.get(indexes[i]);
+			model.c[i] = censoring.get(indexes[i]);
+			model.times[i] = times[indexes[i]];
+			patients.putIfAbsent(model.patient_ids[i], i);
+		}
+		
+		SymbolTable table = new SymbolTable(model.n);
+		Gene[][] map = geneTable(model, table);
+		
+		ByteBuffer buffer = LineTokenizer.load(maf_file);
+		tokenizer = (buffer != null) ? new LineTokenizer(buffer, 0, buffer.limit()) : LineTokenizer.open(maf_file);
+		int symbol_column = -1;
+		int sample_column = -1;
+		int rows = 0;
+		int unmatched = 0;
+		while(tokenizer.nextLine()) {
+			if(!tokenizer.nextToken() || tokenizer.isEmpty() || tokenizer.byteAt(tokenizer.start) == '#') {
+				continue;
+			}
+			if(symbol_column < 0) {
+				// Column header
+				int column = 0;
+				do {
+					String name = tokenizer.stringValue();
+					if(name.equals("Hugo_Symbol")) {
+						symbol_column = column;
+					}else if(name.equals("Tumor_Sample_Barcode")) {
+						sample_column = column;
 					}
+					column++;
+				}while(tokenizer.nextToken());
+				if(symbol_column < 0 || sample_column < 0) {
+					System.err.println("Missing Hugo_Symbol or Tumor_Sample_Barcode column in MAF file: "+maf_file);
+					System.exit(1);
+				}
+				continue;
+			}
+			int gene = -1;
+			int patient = -1;
+			int column = 0;
+			do {
+				if(column == symbol_column) {
+					gene = table.get(tokenizer.buffer(), tokenizer.start, tokenizer.end);
+				}else if(column == sample_column) {
+					patient = patientIndex(patients, tokenizer);
+				}
+				column++;
+			}while(column <= Math.max(symbol_column, sample_column) && tokenizer.nextToken());
+			rows++;
+			if(patient < 0) {
+				unmatched++;
+			}else if(gene >= 0) {
+				for(Gene g : map[gene]) {
+					Bitstring.setBit(g.x, patient);
 				}
 			}
 		}
+		tokenizer.close();
 		
 		for(int i=0; i<model.n; i++) {
 			model.genes[i].m1 = Bitstring.numberOfSetBits(model.genes[i].x);
 		}
 		
-		Utils.close(reader);
 		model.w = Censoring.computeWeights(model.c);
 		model.norm_coef = Censoring.computeNormCoef(model.c);
-		model.matrix_file = filename;
+		model.matrix_file = maf_file;
+		model.survival_file = survival_file;
 		
 		model.log.stream.println("[Mutation matrix] File name = "+model.matrix_file);
+		model.log.stream.println("\tSurvival file = "+model.survival_file);
+		model.log.stream.println("\tMAF rows: "+rows);
+		model.log.stream.println("\tMAF rows of patients without survival data: "+unmatched);
 		printCtrlInformation(model, "\t");
 	}
 	
+	/**
+	 * Looks up the patient of a sample barcode, trying the whole barcode first and then its prefixes ending before a '-', from the longest.
+	 *
+	 * @param patients {@link SymbolTable} mapping patient ids to their indexes.
+	 * @param tokenizer The {@link LineTokenizer} positioned on the barcode.
+	 * @return The index of the patient, or -1 if none matches.
+	 */
+	private static int patientIndex(SymbolTable patients, LineTokenizer tokenizer) {
+		int end = tokenizer.end;
+		while(end > tokenizer.start) {
+			int patient = patients.get(tokenizer.buffer(), tokenizer.start, end);
+			if(patient >= 0) {
+				return patient;
+			}
+			do {
+				end--;
+			}while(end > tokenizer.start && tokenizer.byteAt(end) != '-');
+		}
+		return -1;
+	}
+	
 	/**
 	 * Constructs mutation matrixes and censoring informations, splitting patients into two groups: train and control.
 	 * It is invoked when using the holdolut approach for statistical validation.
+	 * The file is read once into a temporary model of all patients, which is then split with {@link #splitMutationMatrix(Model, Model, Model, boolean, int, double, long)}.
 	 *
 	 * @param filename Path to the file containing the data to load.
 	 * @param train {@link Model} instance of the data used to extract the candidate solutions.
@@ -82,36 +258,108 @@ public class Mutations {
 	 * @param seed Seed to initialize {@link Random} objects that perform randomization.
 	 */
 	public static void loadMutationMatrixes(String filename, Model train, Model control, boolean timesplits, int splits, double proportion, long seed) {
-		BufferedReader reader = Utils.bufferedReader(filename);
-		String line = Utils.readLine(reader);
-		int m = Integer.parseInt(line);
-		double[] times = new double[m];
+		Model all = new Model(train.log);
+		Graph.copy(train, all);
+		loadMutationMatrix(filename, all);
+		splitMutationMatrix(all, train, control, timesplits, splits, proportion, seed);
+	}
+	
+	/**
+	 * Splits the patients of a model into two groups, train and control, without reading the data file again.
+	 * Train and control must hold a copy of the network of the model (see {@link Graph#copy(Model, Model)}); their mutation matrixes and censoring informations are projections of the ones of the model on the patients of each group.
+	 * It is invoked when using the holdolut approach for statistical validation.
+	 *
+	 * @param all {@link Model} instance with the data of all patients.
+	 * @param train {@link Model} instance of the data used to extract the candidate solutions.
+	 * @param control {@link Model} instance of the data used to statistically validate solutions.
+	 * @param timesplits Flag that determines if patients have to be partitioned in groups depending of their survival time.
+	 * @param splits Number of groups to split the patients into.
+	 * @param proportion For each group of patients, determines the proportion (0 = none, 1 = all) of patients to use in training group.
+	 * @param seed Seed to initialize {@link Random} objects that perform randomization.
+	 */
+	public static void splitMutationMatrix(Model all, Model train, Model control, boolean timesplits, int splits, double proportion, long seed) {
+		int[] group = splitGroups(all.times, timesplits, splits, proportion, seed);
+		project(all, train, patientsOfGroup(group, 0));
+		project(all, control, patientsOfGroup(group, 1));
 		
+		train.log.stream.println("[Mutation matrix] File name = "+train.matrix_file);
+		printInformation(train, "\t");
+
+		control.log.stream.println("[Mutation matrix] File name = "+control.matrix_file);
+		printCtrlInformation(control, "\t");
+	}
+	
+	/**
+	 * Assigns the patients to the train (0) or control (1) group.
+	 * Patients are sorted by survival time and partitioned into subgroups, either of equal size or spanning equal time intervals;
+	 * from each subgroup, a random sample of the given proportion of patients is assigned to the train group.
+	 *
+	 * @param times Survival times of the patients.
+	 * @param timesplits Flag that determines if patients have to be partitioned in groups depending of their survival time.
+	 * @param splits Number of groups to split the patients into.
+	 * @param proportion For each group of patients, determines the proportion (0 = none, 1 = all) of patients to use in training group.
+	 * @param seed Seed to initialize {@link Random} objects that perform randomization.
+	 * @return For each patient, its group.
+	 */
+	public static int[] splitGroups(double[] times, boolean timesplits, int splits, double proportion, long seed) {
+		int m = times.length;
+		int[] indexes = sorter(times);
+		double[] sorted = new double[m];
 		for(int i=0; i<m; i++) {
-			String[] parts = Utils.readLine(reader).split("\t");
-			times[i] = Double.parseDouble(parts[2]);	
+			sorted[i] = times[indexes[i]];
 		}
+		int[] sizes = subgroupSizes(sorted, timesplits, splits);
 		
-		int[] indexes = sorter(times);
+		//data split through indexes: define an array of 0/1 to define either if an entry belongs to training or control group
+		int[] group = new int[m];
 		
-		double tempDouble;
-				
-		for (int i = 0; i < m; i++) {
-			int index = indexes[i];
-			if (times[index] != times[i]) {
-				tempDouble = times[i];
-				times[i] = times[index];
-				times[index] = tempDouble;
-			}
+		for (int i = 0; i < group.length; i++) {
+			group[i] = 1; //initiation: mark all elements as control
 		}
 		
-		Utils.close(reader);
+		Random generator = new Random(seed);
+		long[] seeds = new long[sizes.length];
 		
-		reader = Utils.bufferedReader(filename);
-		line = Utils.readLine(reader); //reset reader
+		for (int i = 0; i < sizes.length; i++) {
+			seeds[i] = generator.nextLong();
+		}
 		
-		//code for determing the split of datasets
+		int ct = 0;
 		
+		//for each subgroup
+		for (int i = 0; i < sizes.length; i++) {
+			
+			// split it in two parts
+			int tr = (int) (sizes[i]*proportion);
+			
+			Stack<Integer> s = new Stack<>();
+			
+			for (int j = 0; j<sizes[i]; j++) {
+				s.push(Integer.valueOf(j));
+			}
+			
+			Collections.shuffle(s, new Random(seeds[i]));
+			
+			//mark training
+			for (int j = 0; j < tr; j++) {
+				group[indexes[ct+s.pop().intValue()]] = 0; //training group with random pickup
+			}
+			
+			ct = ct + sizes[i];
+		}
+		return group;
+	}
+	
+	/**
+	 * Partitions patients sorted by survival time into subgroups, either of equal size or spanning equal time intervals.
+	 *
+	 * @param times Survival times of the patients, sorted.
+	 * @param timesplits Flag that determines if patients have to be partitioned in groups depending of their survival time.
+	 * @param splits Number of groups to split the patients into.
+	 * @return The sizes of the subgroups of consecutive patients.
+	 */
+	public static int[] subgroupSizes(double[] times, boolean timesplits, int splits) {
+		int m = times.length;
 		int[] sizes = null;
 		
 		if (!timesplits) {
@@ -160,7 +408,6 @@ public class Mutations {
 			}
 			
 			//check for spurious groups of size 1 and merges it with others close
-			ct = 0; // counter of spurious groups
 			for (int i = 0; i < sizes.length-1; i++) {
 				if (sizes[i] == 1) {
 					sizes[i] = 0;
@@ -172,176 +419,76 @@ public class Mutations {
 				sizes[sizes.length-2]++;
 			}
 			
-		}		
-		
-		//data split through indexes: define an array of 0/1 to define either if an entry belongs to training or control group
-		int[] group = new int[m];
-		
-		for (int i = 0; i < group.length; i++) {
-			group[i] = 1; //initiation: mark all elements as control
 		}
-		
-		Random generator = new Random(seed);
-		long[] seeds = new long[sizes.length];
-		
-		for (int i = 0; i < sizes.length; i++) {
-			seeds[i] = generator.nextLong();
-		}
-		
-		int ct = 0;
-		
-		//for each subgroup
-		for (int i = 0; i < sizes.length; i++) {
-			
-			// split it in two parts
-			int tr = (int) (sizes[i]*proportion);
-			int ctrl = sizes[i]-tr;
-			
-			Stack<Integer> s = new Stack<>();
-			
-			for (int j = 0; j<sizes[i]; j++) {
-				s.push(new Integer(j));
-			}
-			
-			Collections.shuffle(s, new Random(seeds[i]));
-			
-			//mark training
-			for (int j = 0; j < tr; j++) {
-				group[ct+((Integer)s.pop()).intValue()] = 0; //training group with random pickup
-			}
-//			
-//			//mark control
-//			for (int j = 0; j < ctrl; j++) {
-//				group[ct++] = 1; //control group
-//			}
-			
-			train.m = train.m+tr;
-			control.m = control.m+ctrl;
-			
-			ct = ct + sizes[i];
-		}
-		
-		//split the indexes array to keep both dataset ordered
-		int[] finalIndexes = new int[m];
-		
-		//expedient for code reuse
-		double[] tempInd = new double[m];
-		for (int i = 0; i < tempInd.length; i++) {
-			tempInd[i] = (double)indexes[i];
-		}
-		
-		int ctTr = 0;
-		int ctCtrl = 0;
-		int[] temp = sorter(tempInd);
-		for (int i = 0; i < group.length; i++) {
-			if (group[temp[i]] == 0) {
-				finalIndexes[indexes[temp[i]]] = ctTr;
-				ctTr++;
-			}
-			else {
-				finalIndexes[indexes[temp[i]]] = ctCtrl;
-				ctCtrl++;
+		return sizes;
+	}
+	
+	/**
+	 * Lists the patients assigned to a group, in their original order.
+	 *
+	 * @param group For each patient, its group.
+	 * @param g The group.
+	 * @return The indexes of the patients of the group.
+	 */
+	public static int[] patientsOfGroup(int[] group, int g) {
+		int count = 0;
+		for(int i=0; i<group.length; i++) {
+			if(group[i] == g) {
+				count++;
 			}
 		}
-		
-		train.c = new int[train.m];
-		train.times = new double[train.m];
-		train.patient_ids = new String[train.m];
-		
-		control.c = new int[control.m];
-		control.times = new double[control.m];
-		control.patient_ids = new String[control.m];
-		
-				
-		HashMap<String, ArrayList<Gene>> map = new HashMap<String, ArrayList<Gene>>();
-		for(int i=0; i<train.n; i++) {
-			train.genes[i].x = Bitstring.getEmpty(train.m);
-			
-			ArrayList<Gene> list = map.get(train.genes[i].symbol);
-			if(list == null) {
-				list = new ArrayList<Gene>();
-				list.add(train.genes[i]);
-				map.put(train.genes[i].symbol, list);
-			}else {
-				list.add(train.genes[i]);
+		int[] patients = new int[count];
+		count = 0;
+		for(int i=0; i<group.length; i++) {
+			if(group[i] == g) {
+				patients[count++] = i;
 			}
 		}
-		
-		HashMap<String, ArrayList<Gene>> mapCtrl = new HashMap<String, ArrayList<Gene>>();
-		for(int i=0; i<control.n; i++) {
-			control.genes[i].x = Bitstring.getEmpty(control.m);
-			
-			ArrayList<Gene> list = mapCtrl.get(control.genes[i].symbol);
-			if(list == null) {
-				list = new ArrayList<Gene>();
-				list.add(control.genes[i]);
-				mapCtrl.put(control.genes[i].symbol, list);
-			}else {
-				list.add(control.genes[i]);
-			}
+		return patients;
+	}
+	
+	/**
+	 * Fills the mutation matrix and censoring information of a view with the data of a subset of the patients of a model.
+	 * The view must hold a copy of the network of the model (see {@link Graph#copy(Model, Model)}). Only the set bits of the mutation bitsets of the model are visited.
+	 *
+	 * @param all {@link Model} instance with the data of all patients.
+	 * @param view {@link Model} instance to fill.
+	 * @param patients Indexes in the model of the patients of the view, sorted by survival time.
+	 */
+	public static void project(Model all, Model view, int[] patients) {
+		view.m = patients.length;
+		view.c = new int[view.m];
+		view.times = new double[view.m];
+		view.patient_ids = new String[view.m];
+		int[] position = new int[all.m];
+		Arrays.fill(position, -1);
+		for(int j=0; j<view.m; j++) {
+			int i = patients[j];
+			position[i] = j;
+			view.c[j] = all.c[i];
+			view.times[j] = all.times[i];
+			view.patient_ids[j] = all.patient_ids[i];
 		}
-//		
-		// I now need to organize the indexes to insert all the data ordered by time
-		
-		
-		for(int i=0; i<m; i++) {
-			int index = indexes[i];
-			if (group[index] == 0) {
-				//to the training group
-				String[] parts = Utils.readLine(reader).split("\t");
-				train.patient_ids[finalIndexes[i]] = parts[0];
-				train.c[finalIndexes[i]] = Integer.parseInt(parts[1]);
-				train.times[finalIndexes[i]] = Double.parseDouble(parts[2]);
-				for(int j=3; j<parts.length; j++) {
-					ArrayList<Gene> list = map.get(parts[j]);
-					if(list != null) {
-						for(Gene gene : list) {
-							Bitstring.setBit(gene.x, finalIndexes[i]);
-						}
+		for(int v=0; v<view.n; v++) {
+			int[] x = all.genes[v].x;
+			int[] y = Bitstring.getEmpty(view.m);
+			for(int word=0; word<x.length; word++) {
+				int bits = x[word];
+				while(bits != 0) {
+					int j = position[word*Bitstring.BITS + Integer.numberOfTrailingZeros(bits)];
+					if(j >= 0) {
+						Bitstring.setBit(y, j);
 					}
+					bits &= bits-1;
 				}
 			}
-			else
-			{
-				//to the control group
-				String[] parts = Utils.readLine(reader).split("\t");
-				control.patient_ids[finalIndexes[i]] = parts[0];
-				control.c[finalIndexes[i]] = Integer.parseInt(parts[1]);
-				control.times[finalIndexes[i]] = Double.parseDouble(parts[2]);
-				for(int j=3; j<parts.length; j++) {
-					ArrayList<Gene> list = mapCtrl.get(parts[j]);
-					if(list != null) {
-						for(Gene gene : list) {
-							Bitstring.setBit(gene.x, finalIndexes[i]);
-						}
-					}
-				}				
-			}
+			view.genes[v].x = y;
+			view.genes[v].m1 = Bitstring.numberOfSetBits(y);
 		}
-		
-		for(int i=0; i<train.n; i++) {
-			train.genes[i].m1 = Bitstring.numberOfSetBits(train.genes[i].x);
-		}
-		
-		for(int i=0; i<control.n; i++) {
-			control.genes[i].m1 = Bitstring.numberOfSetBits(control.genes[i].x);
-		}
-		
-		Utils.close(reader);
-		train.w = Censoring.computeWeights(train.c);
-		control.w = Censoring.computeWeights(control.c);
-		
-		train.norm_coef = Censoring.computeNormCoef(train.c);
-		control.norm_coef = Censoring.computeNormCoef(control.c);
-		
-		train.matrix_file = filename;
-		control.matrix_file = filename;
-		
-		train.log.stream.println("[Mutation matrix] File name = "+train.matrix_file);
-		printInformation(train, "\t");
-
-		control.log.stream.println("[Mutation matrix] File name = "+control.matrix_file);
-		printCtrlInformation(control, "\t");
+		view.w = Censoring.computeWeights(view.c);
+		view.norm_coef = Censoring.computeNormCoef(view.c);
+		view.matrix_file = all.matrix_file;
+		view.survival_file = all.survival_file;
 	}
 	
     /**
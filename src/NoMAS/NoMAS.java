@@ -25,6 +25,7 @@ public class NoMAS extends AbstractNoMAS {
 	 */
 	public Solution computeEntry(Vertex v, int T, int last, int p) {
 		Solution best = null;
+		boolean last_layer = Integer.bitCount(T) == config.k;
 		for(int rowQ=last; rowQ>=0; rowQ--) {
 			int Q = row_to_colorset[rowQ];
 			int R = Bitstring.setDifference(T, Q);
@@ -34,15 +35,53 @@ public class NoMAS extends AbstractNoMAS {
 				continue;
 			}
 		
-			for(Vertex u : v.neighbors) {
-				if(W[rowR][u.id] != null) {
-					Solution candidate = Solution.merge(W[rowQ][v.id], W[rowR][u.id], model);
-					if(best == null || config.objective.compare(candidate, best) >= 0) {
-						best = candidate;
+			long[] live = liveNeighbors(v, rowR);
+			if(live != null) {
+				// Hubs only visit the neighbors with an entry, in the same order
+				for(int i=0; i<live.length; i++) {
+					long bits = live[i];
+					while(bits != 0) {
+						Vertex u = v.neighbors.get(i*64 + Long.numberOfTrailingZeros(bits));
+						bits &= bits-1;
+						best = combine(W[rowQ][v.id], W[rowR][u.id], best, last_layer);
+					}
+				}
+			}else {
+				for(Vertex u : v.neighbors) {
+					if(W[rowR][u.id] != null) {
+						best = combine(W[rowQ][v.id], W[rowR][u.id], best, last_layer);
 					}
 				}
 			}
 		}
 		return best;
 	}
-}
+	
+	/**
+	 *{@inheritDoc}
+	 */
+	@Override
+	public boolean usesHubIndex() {
+		return true;
+	}
+	
+	/**
+	 * Merges two entries and keeps the merged subnetwork if it is at least as good as the best candidate so far.
+	 * 
+	 * @param a The first entry to merge.
+	 * @param b The second entry to merge.
+	 * @param best The best candidate so far, or null.
+	 * @param last_layer true if the entry being computed has k colors.
+	 * @return The new best candidate.
+	 */
+	private Solution combine(Solution a, Solution b, Solution best, boolean last_layer) {
+		if(prunes(a, b, best, last_layer)) {
+			return best;
+		}
+		Solution candidate = Solution.merge(a, b, model);
+		if(best == null || config.objective.compare(candidate, best) >= 0) {
+			return candidate;
+		}
+		return best;
+	}
+}
\ No newline at end of file
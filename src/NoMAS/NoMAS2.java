@@ -39,6 +39,7 @@ public class NoMAS2 extends AbstractNoMAS {
 	 */
 	public Solution computeEntry(Vertex v, int T, int last, int p) {
 		Solution best = null;
+		boolean last_layer = Integer.bitCount(T) == config.k;
 		for(int rowQ=last; rowQ>=0; rowQ--) {
 			int Q = row_to_colorset[rowQ];
 			int R = Bitstring.setDifference(T, Q);
@@ -64,7 +65,7 @@ public class NoMAS2 extends AbstractNoMAS {
 			// Attempt to combine with W(R,u) for each neighbor u
 			for(Vertex u : neighborhood) {
 				included[u.id] = false;	
-				if(W[rowR][u.id] != null) {
+				if(W[rowR][u.id] != null && !prunes(W[rowQ][v.id], W[rowR][u.id], best, last_layer)) {
 					Solution candidate = Solution.merge(W[rowQ][v.id], W[rowR][u.id], model);
 					if(best == null || config.objective.compare(candidate, best) >= 0) {
 						best = candidate;
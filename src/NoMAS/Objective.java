@@ -18,6 +18,14 @@ public interface Objective {
 	 */
 	public int compare(Solution a, Solution b);
 
+	/**
+	 * Returns the value of a {@link Solution} under the policy, growing as the solution improves: a is better than b if and only if key(a) &gt; key(b).
+	 *
+	 * @param s The {@link Solution} instance to evaluate
+	 * @return the key of the {@link Solution}
+	 */
+	public double key(Solution s);
+
 	/**
 	 * Returns the name of the policy
 	 * 
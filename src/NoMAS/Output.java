@@ -1,5 +1,6 @@
 package NoMAS;
 import java.io.*;
+import java.nio.file.*;
 
 /**
  * Class that manages the output to a text file and incapsulates the file handling.
@@ -75,6 +76,39 @@ public class Output {
 		return stream;
 	}
 	
+	/**
+	 * Creates a temporary file with a unique name in the folder of a file, to be written and then moved in place of the file (see replace(File, String)).
+	 * Processes writing the same file at the same time each write their own temporary file.
+	 * 
+	 * @param filename The path to the file.
+	 * @return The temporary {@link File}, or null if it cannot be created.
+	 */
+	public static File temporaryFile(String filename) {
+		File file = new File(filename).getAbsoluteFile();
+		try {
+			return File.createTempFile(file.getName()+".", ".tmp", file.getParentFile());
+		}catch(IOException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Moves a temporary file in place of a file in a single atomic step, so that the file is never observed partially written. The temporary file is deleted if it cannot be moved.
+	 * 
+	 * @param tmp The temporary {@link File} (see temporaryFile(String)).
+	 * @param filename The path to the file.
+	 * @return true if the file was replaced.
+	 */
+	public static boolean replace(File tmp, String filename) {
+		try {
+			Files.move(tmp.toPath(), new File(filename).toPath(), StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		}catch(IOException e) {
+			tmp.delete();
+			return false;
+		}
+	}
+	
 	/**
 	 * Prints a summary of {@link Solution} instances to a file. 
 	 * 
@@ -94,6 +128,9 @@ public class Output {
 		stream.println("Mutation matrix file\t"+model.matrix_file);
 		stream.println("Mutation removal threshold\t"+model.mutation_threshold);
 		stream.println("Reduction conditions\t"+model.reduction_conditions);
+		if(model.survival_file != null) {
+			stream.println("Survival file\t"+model.survival_file);
+		}
 	}
 	
 	/**
@@ -116,6 +153,9 @@ public class Output {
 		stream.println("Mutation matrix file\t"+train.matrix_file);
 		stream.println("Mutation removal threshold\t"+train.mutation_threshold);
 		stream.println("Reduction conditions\t"+train.reduction_conditions);
+		if(train.survival_file != null) {
+			stream.println("Survival file\t"+train.survival_file);
+		}
 	}
 	
 	/**
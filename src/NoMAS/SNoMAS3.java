@@ -46,20 +46,22 @@ public class SNoMAS3 extends SNoMAS2 {
 		}
 		
 		Solution best = null;
+		boolean last_layer = Integer.bitCount(T) == config.k;
 		for(int rowQ=last; rowQ>=0; rowQ--) {
 			int Q = row_to_colorset[rowQ];
 			int R = Bitstring.setDifference(T, Q);
 			int rowR = colorset_to_row[R];
 
 			// If Q is not a subset of T or the entry for v is null
-			if(R == 0 || W[rowQ][v.id] == null) {
+			Solution entry = entry(rowQ, v);
+			if(R == 0 || entry == null) {
 				continue;
 			}
 
 			// Build neighborhood of subnetwork W(Q,v)
 			ArrayList<Vertex> neighborhood = new ArrayList<Vertex>();
 			boolean[] included = included_arrays[p];
-			for(Vertex w : W[rowQ][v.id].vertices) {
+			for(Vertex w : entry.vertices) {
 				for(Vertex u : w.neighbors) {
 					if(included[u.id] || vertex_cost[u.id] <= 0) {
 						continue;
@@ -72,8 +74,9 @@ public class SNoMAS3 extends SNoMAS2 {
 			// Attempt to combine with W(R,u) for each neighbor u
 			for(Vertex u : neighborhood) {
 				included[u.id] = false;	
-				if(W[rowR][u.id] != null) {
-					Solution candidate = Solution.merge(W[rowQ][v.id], W[rowR][u.id], model);
+				Solution other = entry(rowR, u);
+				if(other != null && !prunes(entry, other, best, last_layer)) {
+					Solution candidate = Solution.merge(entry, other, model);
 					if(best == null || config.objective.compare(candidate, best) >= 0) {
 						best = candidate;
 					}
@@ -0,0 +1,149 @@
+package NoMAS;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Cache of the seed vertices generated for SNoMAS, so that the inner NoMAS search that produces them runs once per distinct input.
+ * Seed sets are keyed by a fingerprint of the model (network, mutations and weights) and of the parameters of the inner search.
+ * They are held in memory for the whole process and, if a directory is given, also written to disk in the format read by the seeds argument, so that later runs reuse them.
+ * Seeds generated from permuted data are neither held nor written, since they are never looked up again (see {@link Configuration#permuted}).
+ * All methods are static.
+ *
+ * @author Federico Altieri
+ * @author Tommy V. Hansen
+ * @author Fabio Vandin
+ *
+ */
+public class SeedCache {
+	/**
+	 * Prefix of the seed files.
+	 */
+	public static final String PREFIX = "seeds-";
+	/**
+	 * Extension of the seed files.
+	 */
+	public static final String EXTENSION = ".txt";
+	/**
+	 * Seed sets generated or loaded in this process, as vertex ids.
+	 */
+	private static final HashMap<Long, int[]> memory = new HashMap<Long, int[]>();
+
+	/**
+	 * Returns the seed vertices of an SNoMAS run, generating them only if they are neither in memory nor on disk. The seeds of a run on permuted data are always generated.
+	 *
+	 * @param snomas The {@link AbstractSNoMAS} instance whose seeds are needed.
+	 * @return The seed vertices, as an {@link ArrayList} of {@link Vertex} instances of the model of the run.
+	 */
+	public static synchronized ArrayList<Vertex> seeds(AbstractSNoMAS snomas) {
+		Model model = snomas.model;
+		Configuration config = snomas.config;
+		if(config.permuted) {
+			return snomas.generateSeeds();
+		}
+		long key = fingerprint(model, config);
+		int[] ids = memory.get(key);
+		String filename = (config.seed_cache == null) ? null : path(config.seed_cache, key);
+		if(ids == null && filename != null && new File(filename).isFile()) {
+			ArrayList<Vertex> seeds = AbstractSNoMAS.loadSeedsFromFile(model, filename);
+			if(seeds != null) {
+				ids = toIds(seeds);
+				memory.put(key, ids);
+			}
+		}
+		if(ids == null) {
+			ArrayList<Vertex> seeds = snomas.generateSeeds();
+			ids = toIds(seeds);
+			memory.put(key, ids);
+			if(filename != null) {
+				store(filename, seeds);
+			}
+		}
+		ArrayList<Vertex> seeds = new ArrayList<Vertex>();
+		for(int id : ids) {
+			seeds.add(model.vertices[id]);
+		}
+		return seeds;
+	}
+
+	/**
+	 * Computes the fingerprint of the seed generation: the model and the parameters of the inner NoMAS search (see {@link AbstractSNoMAS#generateSeeds()}).
+	 *
+	 * @param model {@link Model} containing input data.
+	 * @param config {@link Configuration} of the SNoMAS run.
+	 * @return The fingerprint.
+	 */
+	public static long fingerprint(Model model, Configuration config) {
+		long h = 0xcbf29ce484222325L;
+		h = Utils.mix(h, model.n);
+		h = Utils.mix(h, model.m);
+		h = Utils.mix(h, config.k);
+		h = Utils.mix(h, config.N);
+		h = Utils.mix(h, Double.doubleToLongBits(config.seed_error));
+		h = Utils.mix(h, config.objective.getName().hashCode());
+		for(Vertex v : model.vertices) {
+			h = Utils.mix(h, v.neighbors.size());
+			for(Vertex u : v.neighbors) {
+				h = Utils.mix(h, (u == null) ? -1 : u.id);
+			}
+			for(int word : v.gene.x) {
+				h = Utils.mix(h, word);
+			}
+		}
+		for(double w : model.w) {
+			h = Utils.mix(h, Double.doubleToLongBits(w));
+		}
+		return h;
+	}
+
+	/**
+	 * Builds the path of the file of a seed set.
+	 *
+	 * @param directory The cache directory.
+	 * @param key The fingerprint of the seed generation.
+	 * @return The path of the seed file.
+	 */
+	public static String path(String directory, long key) {
+		return directory+"/"+PREFIX+Long.toHexString(key)+EXTENSION;
+	}
+
+	/**
+	 * Writes a seed set to disk, one gene symbol per line. The file is written to a temporary file of its own and moved in place, so that concurrent runs never read a partial file (see {@link Output#temporaryFile(String)}).
+	 *
+	 * @param filename Path of the seed file.
+	 * @param seeds The seed vertices.
+	 */
+	private static void store(String filename, ArrayList<Vertex> seeds) {
+		filename = Output.verifyPath(filename);
+		File tmp = Output.temporaryFile(filename);
+		if(tmp == null) {
+			System.err.println("Could not write the seed file: "+filename);
+			return;
+		}
+		try(PrintStream stream = new PrintStream(new FileOutputStream(tmp))) {
+			for(Vertex v : seeds) {
+				stream.println(v.gene.symbol);
+			}
+		}catch(IOException e) {
+			System.err.println("Could not write the seed file: "+filename);
+			tmp.delete();
+			return;
+		}
+		if(!Output.replace(tmp, filename)) {
+			System.err.println("Could not write the seed file: "+filename);
+		}
+	}
+
+	/**
+	 * Converts a list of vertices to their ids.
+	 *
+	 * @param vertices The {@link Vertex} instances.
+	 * @return The ids, in the same order.
+	 */
+	private static int[] toIds(ArrayList<Vertex> vertices) {
+		int[] ids = new int[vertices.size()];
+		for(int i=0; i<ids.length; i++) {
+			ids[i] = vertices.get(i).id;
+		}
+		return ids;
+	}
+}
@@ -69,10 +69,24 @@ public class Solution{
 	 * Score of the solution represented by this instance.
 	 */
 	public double score;
+	/**
+	 * Sum of the weights of the patients of the subnetwork that move the logrank statistic towards the objective, set on the entries of the NoMAS table when pruning (see {@link AbstractNoMAS#prunes(Solution, Solution, Solution, boolean)}).
+	 */
+	public double gain;
 	/**
 	 * {@link ArrayList} of the instances of {@link Vertex} representing the subnetwork solution of the computational problem.
 	 */
 	public ArrayList<Vertex> vertices;
+	/**
+	 * Ids of the vertices of the subnetwork, in increasing order, or null until first needed (see ids()).
+	 * Must be updated with canonicalize() when the vertices are changed directly.
+	 */
+	private int[] ids;
+	/**
+	 * Hash of the vertices of the subnetwork: the sum of the mixed ids of the vertices, so that it does not depend on their order and the hash of a merge is the sum of the hashes.
+	 * Must be updated with canonicalize() when the vertices are changed directly.
+	 */
+	public long hash;
 	/**
 	 * Next instance of {@link Solution} in the list of solutions (check also {@link SolutionList}).
 	 */
@@ -94,6 +108,7 @@ public class Solution{
 	public Solution(Vertex v, Model model) {
 		this();
 		vertices.add(v);
+		hash = hash(v);
 		x = Arrays.copyOf(v.gene.x, v.gene.x.length);
 		computeLogrankStatistic(model);
 	}
@@ -109,10 +124,53 @@ public class Solution{
 	public Solution(Vertex v, double score, Model model) {
 		this();
 		vertices.add(v);
+		hash = hash(v);
 		this.score = score;
 		x = Arrays.copyOf(v.gene.x, v.gene.x.length);
 	}
 	
+	/**
+	 * Computes the contribution of a vertex to the hash of a subnetwork.
+	 * 
+	 * @param v Instance of {@link Vertex}.
+	 * @return The mixed id of the vertex.
+	 */
+	public static long hash(Vertex v) {
+		long z = (v.id + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	/**
+	 * Recomputes the hash of the subnetwork from its vertices, and discards its sorted ids.
+	 */
+	public void canonicalize() {
+		hash = 0;
+		for(Vertex v : vertices) {
+			hash += hash(v);
+		}
+		ids = null;
+	}
+	
+	/**
+	 * Returns the ids of the vertices of the subnetwork, in increasing order. They are computed at the first call, since most solutions are never compared.
+	 * 
+	 * @return The sorted ids.
+	 */
+	public int[] ids() {
+		int[] sorted = ids;
+		if(sorted == null) {
+			sorted = new int[vertices.size()];
+			for(int i=0; i<sorted.length; i++) {
+				sorted[i] = vertices.get(i).id;
+			}
+			Arrays.sort(sorted);
+			ids = sorted;
+		}
+		return sorted;
+	}
+	
 	/**
 	 * Computes the logrank statistic value of the current subnetwork.
 	 * 
@@ -202,15 +260,21 @@ public class Solution{
 	 * @return true if the {@link Solution} instances identical, false elsewhere.
 	 */
 	public static boolean isEqual(Solution a, Solution b) {
-		if(a.vertices.size() != b.vertices.size()) {
+		if(a.hash != b.hash || a.vertices.size() != b.vertices.size()) {
 			return false;
 		}
-		for(Vertex v : a.vertices) {
-			if(!b.vertices.contains(v)) {
-				return false;
-			}
-		}
-		return true;
+		return Arrays.equals(a.ids(), b.ids());
+	}
+	
+	/**
+	 * Compares the subnetworks of two {@link Solution} instances by their sorted vertex ids, so that ties between subnetworks can be broken regardless of the order in which they are found.
+	 * 
+	 * @param a The first {@link Solution} instance to compare.
+	 * @param b The second {@link Solution} instance to compare.
+	 * @return A negative value, zero or a positive value if the ids of a are lexicographically lower, equal or higher than the ones of b.
+	 */
+	public static int compareIds(Solution a, Solution b) {
+		return Arrays.compare(a.ids(), b.ids());
 	}
 	
 	/**
@@ -224,13 +288,23 @@ public class Solution{
 		if(a.vertices.size() != b.vertices.size()) {
 			return Math.abs(a.vertices.size() - b.vertices.size());
 		}
-		int unique = 0;
-		for(Vertex v : a.vertices) {
-			if(!b.vertices.contains(v)) {
-				unique++;
+		int[] A = a.ids();
+		int[] B = b.ids();
+		int common = 0;
+		int i = 0;
+		int j = 0;
+		while(i < A.length && j < B.length) {
+			if(A[i] < B[j]) {
+				i++;
+			}else if(A[i] > B[j]) {
+				j++;
+			}else {
+				common++;
+				i++;
+				j++;
 			}
 		}
-		return unique;
+		return A.length - common;
 	}
 	
 	/**
@@ -245,6 +319,7 @@ public class Solution{
 		Solution s = new Solution();
 		s.vertices.addAll(a.vertices);
 		s.vertices.addAll(b.vertices);
+		s.hash = a.hash + b.hash;
 		s.x = Bitstring.logicalOR(a.x, b.x);
 		s.computeLogrankStatistic(model);
 		return s;
@@ -263,6 +338,7 @@ public class Solution{
 		Solution s = new Solution();
 		s.vertices.addAll(a.vertices);
 		s.vertices.addAll(b.vertices);
+		s.hash = a.hash + b.hash;
 		s.score = a.score + b.score;
 		return s;
 	}
@@ -0,0 +1,185 @@
+package NoMAS;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Collects the best solutions found by several threads without synchronizing them on every insertion.
+ * Each thread fills its own {@link SolutionHeap}, and the heaps are merged when the search is over.
+ * Whenever the heap of a thread is full, its lowest key raises a shared admission threshold: since the final list is at least as good as any full heap,
+ * solutions whose key is below the threshold can be discarded by every thread before they are even built.
+ * Keys must grow as solutions improve under the objective function of the collector.
+ *
+ * @author Federico Altieri
+ * @author Tommy V. Hansen
+ * @author Fabio Vandin
+ *
+ */
+public class SolutionCollector {
+	/**
+	 * Objective function that ranks the collected solutions.
+	 */
+	public final Objective objective;
+	/**
+	 * Number of solutions to collect.
+	 */
+	public final int size;
+	/**
+	 * Bits of the admission threshold.
+	 */
+	private final AtomicLong threshold;
+	/**
+	 * Heaps of the threads.
+	 */
+	private final ArrayList<SolutionHeap> heaps;
+
+	/**
+	 * Constructor that initializes an empty collector.
+	 *
+	 * @param objective Objective function that ranks the collected solutions.
+	 * @param size Number of solutions to collect.
+	 */
+	public SolutionCollector(Objective objective, int size) {
+		this.objective = objective;
+		this.size = size;
+		threshold = new AtomicLong(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+		heaps = new ArrayList<SolutionHeap>();
+	}
+
+	/**
+	 * Creates the heap of a thread.
+	 *
+	 * @return An empty {@link SolutionHeap} with the capacity of the collector.
+	 */
+	public synchronized SolutionHeap newHeap() {
+		SolutionHeap heap = new SolutionHeap(size);
+		heaps.add(heap);
+		return heap;
+	}
+
+	/**
+	 * Returns the admission threshold.
+	 *
+	 * @return The key of the worst solution of the fullest heap, or negative infinity if no heap is full.
+	 */
+	public double threshold() {
+		return Double.longBitsToDouble(threshold.get());
+	}
+
+	/**
+	 * Checks whether a solution can enter the collected solutions.
+	 *
+	 * @param key The key of the solution.
+	 * @return false if the key is lower than the admission threshold.
+	 */
+	public boolean admits(double key) {
+		return key >= threshold();
+	}
+
+	/**
+	 * Offers a solution to the heap of a thread, raising the admission threshold if the heap is full.
+	 *
+	 * @param heap The {@link SolutionHeap} of the thread.
+	 * @param solution The {@link Solution} instance.
+	 * @param key The key of the solution.
+	 */
+	public void offer(SolutionHeap heap, Solution solution, double key) {
+		if(heap.offer(solution, key) && heap.isFull()) {
+			raise(heap.worstKey());
+		}
+	}
+
+	/**
+	 * Offers a solution to the heap of a thread unless the heap keeps the same subnetwork, raising the admission threshold if the heap is full.
+	 * Ties between keys are broken by the order and then by the vertex ids of the subnetworks (see {@link SolutionHeap}): if the order only depends on the subnetwork,
+	 * the collected subnetworks do not depend on how the solutions are split among the threads, nor on the order in which they are offered.
+	 *
+	 * @param heap The {@link SolutionHeap} of the thread.
+	 * @param solution The {@link Solution} instance.
+	 * @param key The key of the solution.
+	 * @param order The order of the solution, breaking the ties between keys: the highest wins.
+	 * @param position The position of the solution: of the copies of a subnetwork the one with the lowest position is kept, and the collected solutions are drained by increasing position.
+	 */
+	public void offerUnique(SolutionHeap heap, Solution solution, double key, long order, long position) {
+		if(heap.offerUnique(solution, key, order, position) && heap.isFull()) {
+			raise(heap.worstKey());
+		}
+	}
+
+	/**
+	 * Empties the heaps of the threads and sets the admission threshold, to collect a new round of solutions. To be invoked when no thread is offering.
+	 *
+	 * @param threshold The initial admission threshold, e.g. the key of the worst solution a round has to beat.
+	 */
+	public synchronized void reset(double threshold) {
+		for(SolutionHeap heap : heaps) {
+			heap.clear();
+		}
+		this.threshold.set(Double.doubleToLongBits(threshold));
+	}
+
+	/**
+	 * Inserts the best solutions offered with offerUnique(SolutionHeap, Solution, double, long, long) into a sorted list. To be invoked when all threads are done.
+	 * The heaps of the threads are first merged into the best distinct subnetworks, each with its copy of lowest position, which are then inserted by increasing position.
+	 *
+	 * @param list The sorted list of {@link Solution} instances to update (see {@link SolutionList#insert(Solution[], Solution, Objective)}).
+	 */
+	public synchronized void drain(Solution[] list) {
+		ArrayList<Solution> solutions = new ArrayList<Solution>();
+		ArrayList<Long> orders = new ArrayList<Long>();
+		ArrayList<Long> positions = new ArrayList<Long>();
+		for(SolutionHeap heap : heaps) {
+			heap.drainTo(solutions, orders, positions);
+		}
+		// A subnetwork kept by several threads is kept once, whatever the split of the solutions among the threads
+		SolutionHeap merged = new SolutionHeap(size);
+		for(int i=0; i<solutions.size(); i++) {
+			merged.offerUnique(solutions.get(i), objective.key(solutions.get(i)), orders.get(i), positions.get(i));
+		}
+		solutions.clear();
+		orders.clear();
+		positions.clear();
+		merged.drainTo(solutions, orders, positions);
+		Integer[] index = new Integer[solutions.size()];
+		for(int i=0; i<index.length; i++) {
+			index[i] = i;
+		}
+		Arrays.sort(index, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return Long.compare(positions.get(a), positions.get(b));
+			}
+		});
+		for(int i : index) {
+			SolutionList.insert(list, solutions.get(i), objective);
+		}
+	}
+
+	/**
+	 * Raises the admission threshold.
+	 *
+	 * @param key The new threshold, ignored if it is lower than the current one.
+	 */
+	private void raise(double key) {
+		long current;
+		while(key > Double.longBitsToDouble(current = threshold.get())) {
+			if(threshold.compareAndSet(current, Double.doubleToLongBits(key))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Merges the heaps of the threads. To be invoked when all threads are done.
+	 * The solutions are ranked as in the heaps (see {@link SolutionHeap}), so that ties between keys do not depend on how the solutions were split among the threads.
+	 *
+	 * @return The best collected {@link Solution} instances, sorted from best to worst (null entries if fewer were collected).
+	 */
+	public synchronized Solution[] collect() {
+		SolutionHeap merged = new SolutionHeap(size);
+		for(SolutionHeap heap : heaps) {
+			for(Solution solution : heap.toArray()) {
+				merged.offer(solution, objective.key(solution));
+			}
+		}
+		return Arrays.copyOf(merged.toSortedArray(), size);
+	}
+}
@@ -0,0 +1,377 @@
+package NoMAS;
+import java.util.*;
+
+/**
+ * Bounded collection of the best {@link Solution} instances offered to it, ranked by a key that grows as solutions improve.
+ * The collection is a binary min-heap on the keys, so that the worst kept solution is found and replaced in logarithmic time.
+ * A solution beats another if its key is higher or, with equal keys, if the order given with it is higher or, with equal orders too, if its sorted vertex ids are higher (see {@link Solution#compareIds(Solution, Solution)}).
+ * Solutions offered with offer(Solution, double) are not checked for duplicates, while offerUnique(Solution, double) keeps each subnetwork once, found by its hash (see {@link Solution#hash}):
+ * of its copies, the one offered with the lowest position is kept. When the order of a subnetwork does not depend on its copy, the kept solutions do not depend on the order in which they are offered.
+ * The collection is not thread safe: each thread should fill its own (see {@link SolutionCollector}).
+ *
+ * @author Federico Altieri
+ * @author Tommy V. Hansen
+ * @author Fabio Vandin
+ *
+ */
+public class SolutionHeap {
+	/**
+	 * Kept {@link Solution} instances, in heap order.
+	 */
+	private Solution[] solutions;
+	/**
+	 * Keys of the kept solutions, in heap order.
+	 */
+	private double[] keys;
+	/**
+	 * Orders of the kept solutions, in heap order.
+	 */
+	private long[] orders;
+	/**
+	 * Positions of the kept copies, in heap order.
+	 */
+	private long[] positions;
+	/**
+	 * Hashes of the kept solutions, in heap order.
+	 */
+	private long[] hashes;
+	/**
+	 * Number of kept solutions.
+	 */
+	private int size;
+
+	/**
+	 * Constructor that initializes an empty collection.
+	 *
+	 * @param capacity Maximum number of solutions to keep.
+	 */
+	public SolutionHeap(int capacity) {
+		solutions = new Solution[capacity];
+		keys = new double[capacity];
+		orders = new long[capacity];
+		positions = new long[capacity];
+		hashes = new long[capacity];
+		size = 0;
+	}
+
+	/**
+	 * Checks if the collection holds as many solutions as its capacity.
+	 *
+	 * @return true if the collection is full.
+	 */
+	public boolean isFull() {
+		return size == solutions.length;
+	}
+
+	/**
+	 * Returns the key of the worst kept solution.
+	 *
+	 * @return The lowest key, or negative infinity if the collection is empty.
+	 */
+	public double worstKey() {
+		return (size == 0) ? Double.NEGATIVE_INFINITY : keys[0];
+	}
+
+	/**
+	 * Empties the collection.
+	 */
+	public void clear() {
+		Arrays.fill(solutions, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * Checks whether a solution with the given key would be kept, regardless of duplicates.
+	 *
+	 * @param key The key of the solution.
+	 * @return true if the collection is not full or the key is higher than the lowest one.
+	 */
+	public boolean admits(double key) {
+		return size < solutions.length || (size > 0 && key > keys[0]);
+	}
+
+	/**
+	 * Checks whether a solution with the given key and order could be kept, regardless of duplicates, before it is built.
+	 *
+	 * @param key The key of the solution.
+	 * @param order The order of the solution.
+	 * @return true if the collection is not full or the solution beats the worst kept one, or ties with it and may beat it by its vertex ids.
+	 */
+	public boolean admits(double key, long order) {
+		return size < solutions.length || (size > 0 && (key > keys[0] || (key == keys[0] && order >= orders[0])));
+	}
+
+	/**
+	 * Offers a solution to the collection, unless the same subnetwork is already kept.
+	 *
+	 * @param solution The {@link Solution} instance.
+	 * @param key The key of the solution.
+	 * @return true if the solution is kept.
+	 */
+	public boolean offerUnique(Solution solution, double key) {
+		return offerUnique(solution, key, 0, 0);
+	}
+
+	/**
+	 * Offers a solution to the collection, unless the same subnetwork is already kept. The order of the solution is also its position.
+	 *
+	 * @param solution The {@link Solution} instance.
+	 * @param key The key of the solution.
+	 * @param order The order of the solution.
+	 * @return true if the solution is kept.
+	 */
+	public boolean offerUnique(Solution solution, double key, long order) {
+		return offerUnique(solution, key, order, order);
+	}
+
+	/**
+	 * Offers a solution to the collection, unless the same subnetwork is already kept, in which case the copy with the lower position replaces the other.
+	 * Kept solutions are compared to it only if they have the same hash and key, in which case their vertices are compared (see {@link Solution#isEqual(Solution, Solution)}).
+	 * Duplicates are looked for before the solution is ranked, so that a copy is never rejected in favor of another one with a higher position.
+	 *
+	 * @param solution The {@link Solution} instance.
+	 * @param key The key of the solution.
+	 * @param order The order of the solution.
+	 * @param position The position of the copy, choosing among the copies of the same subnetwork.
+	 * @return true if the solution is kept as a new subnetwork.
+	 */
+	public boolean offerUnique(Solution solution, double key, long order, long position) {
+		// A key lower than every kept one can neither be kept nor belong to a kept subnetwork
+		if(size > 0 && size == solutions.length && key < keys[0]) {
+			return false;
+		}
+		for(int i=0; i<size; i++) {
+			if(hashes[i] == solution.hash && keys[i] == key && Solution.isEqual(solutions[i], solution)) {
+				if(position < positions[i]) {
+					replace(i, solution, key, order, position);
+				}
+				return false;
+			}
+		}
+		return offer(solution, key, order, position);
+	}
+
+	/**
+	 * Offers a solution to the collection. The solution is kept if the collection is not full or if its key is higher than the lowest one, whose solution is then dropped.
+	 *
+	 * @param solution The {@link Solution} instance.
+	 * @param key The key of the solution.
+	 * @return true if the solution is kept.
+	 */
+	public boolean offer(Solution solution, double key) {
+		return offer(solution, key, 0, 0);
+	}
+
+	/**
+	 * Offers a solution to the collection. The solution is kept if the collection is not full or if it beats the worst kept one, which is then dropped.
+	 *
+	 * @param solution The {@link Solution} instance.
+	 * @param key The key of the solution.
+	 * @param order The order of the solution.
+	 * @param position The position of the solution.
+	 * @return true if the solution is kept.
+	 */
+	public boolean offer(Solution solution, double key, long order, long position) {
+		if(size < solutions.length) {
+			siftUp(size++, solution, key, order, position);
+			return true;
+		}
+		if(size == 0 || !beats(key, order, solution, keys[0], orders[0], solutions[0])) {
+			return false;
+		}
+		siftDown(0, solution, key, order, position);
+		return true;
+	}
+
+	/**
+	 * Checks whether a solution beats another one.
+	 *
+	 * @param key The key of the solution.
+	 * @param order The order of the solution.
+	 * @param solution The {@link Solution} instance.
+	 * @param other_key The key of the other solution.
+	 * @param other_order The order of the other solution.
+	 * @param other The other {@link Solution} instance.
+	 * @return true if the key is higher, or equal with a higher order, or both equal with higher sorted vertex ids.
+	 */
+	private static boolean beats(double key, long order, Solution solution, double other_key, long other_order, Solution other) {
+		if(key != other_key) {
+			return key > other_key;
+		}
+		if(order != other_order) {
+			return order > other_order;
+		}
+		return solution != other && Solution.compareIds(solution, other) > 0;
+	}
+
+	/**
+	 * Checks whether a kept solution beats another one.
+	 *
+	 * @param i The position in the heap of the solution.
+	 * @param j The position in the heap of the other solution.
+	 * @return true if the solution at i beats the one at j.
+	 */
+	private boolean beats(int i, int j) {
+		return beats(keys[i], orders[i], solutions[i], keys[j], orders[j], solutions[j]);
+	}
+
+	/**
+	 * Places a solution at a position of the heap, moving it up while it is beaten by its parent.
+	 *
+	 * @param i The position.
+	 * @param solution The {@link Solution} instance.
+	 * @param key The key of the solution.
+	 * @param order The order of the solution.
+	 * @param position The position of the copy.
+	 */
+	private void siftUp(int i, Solution solution, double key, long order, long position) {
+		while(i > 0) {
+			int parent = (i-1)/2;
+			if(!beats(keys[parent], orders[parent], solutions[parent], key, order, solution)) {
+				break;
+			}
+			move(parent, i);
+			i = parent;
+		}
+		set(i, solution, key, order, position);
+	}
+
+	/**
+	 * Places a solution at a position of the heap, moving it down while it beats one of its children.
+	 *
+	 * @param i The position.
+	 * @param solution The {@link Solution} instance.
+	 * @param key The key of the solution.
+	 * @param order The order of the solution.
+	 * @param position The position of the copy.
+	 */
+	private void siftDown(int i, Solution solution, double key, long order, long position) {
+		while(true) {
+			int child = 2*i+1;
+			if(child >= size) {
+				break;
+			}
+			if(child+1 < size && beats(child, child+1)) {
+				child++;
+			}
+			if(!beats(key, order, solution, keys[child], orders[child], solutions[child])) {
+				break;
+			}
+			move(child, i);
+			i = child;
+		}
+		set(i, solution, key, order, position);
+	}
+
+	/**
+	 * Replaces a kept solution with another copy of its subnetwork, moving it if the order of the copy changes its rank.
+	 *
+	 * @param i The position in the heap of the kept solution.
+	 * @param solution The {@link Solution} instance of the copy.
+	 * @param key The key of the copy.
+	 * @param order The order of the copy.
+	 * @param position The position of the copy.
+	 */
+	private void replace(int i, Solution solution, double key, long order, long position) {
+		if(beats(key, order, solution, keys[i], orders[i], solutions[i])) {
+			siftDown(i, solution, key, order, position);
+		}else {
+			siftUp(i, solution, key, order, position);
+		}
+	}
+
+	/**
+	 * Moves a kept solution to another position of the heap.
+	 *
+	 * @param from The current position.
+	 * @param to The new position.
+	 */
+	private void move(int from, int to) {
+		solutions[to] = solutions[from];
+		keys[to] = keys[from];
+		orders[to] = orders[from];
+		positions[to] = positions[from];
+		hashes[to] = hashes[from];
+	}
+
+	/**
+	 * Stores a solution at a position of the heap.
+	 *
+	 * @param i The position.
+	 * @param solution The {@link Solution} instance.
+	 * @param key The key of the solution.
+	 * @param order The order of the solution.
+	 * @param position The position of the copy.
+	 */
+	private void set(int i, Solution solution, double key, long order, long position) {
+		solutions[i] = solution;
+		keys[i] = key;
+		orders[i] = order;
+		positions[i] = position;
+		hashes[i] = solution.hash;
+	}
+
+	/**
+	 * Links the kept solutions through their next field, from best to worst.
+	 *
+	 * @return The best kept {@link Solution} instance, head of the list, or null if the collection is empty.
+	 */
+	public Solution toLinkedList() {
+		Solution[] sorted = toSortedArray();
+		Solution head = null;
+		for(int i=sorted.length-1; i>=0; i--) {
+			sorted[i].next = head;
+			head = sorted[i];
+		}
+		return head;
+	}
+
+	/**
+	 * Returns the kept solutions from best to worst.
+	 *
+	 * @return The kept {@link Solution} instances, sorted so that each one beats the following ones.
+	 */
+	public Solution[] toSortedArray() {
+		Integer[] order = new Integer[size];
+		for(int i=0; i<size; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return beats(a, b) ? -1 : beats(b, a) ? 1 : 0;
+			}
+		});
+		Solution[] sorted = new Solution[size];
+		for(int i=0; i<size; i++) {
+			sorted[i] = solutions[order[i]];
+		}
+		return sorted;
+	}
+
+	/**
+	 * Appends the kept solutions, their orders and their positions to three lists, and empties the collection.
+	 *
+	 * @param solutions The {@link ArrayList} to which the kept {@link Solution} instances are appended, in no particular order.
+	 * @param orders The {@link ArrayList} to which their orders are appended.
+	 * @param positions The {@link ArrayList} to which their positions are appended.
+	 */
+	public void drainTo(ArrayList<Solution> solutions, ArrayList<Long> orders, ArrayList<Long> positions) {
+		for(int i=0; i<size; i++) {
+			solutions.add(this.solutions[i]);
+			orders.add(this.orders[i]);
+			positions.add(this.positions[i]);
+		}
+		clear();
+	}
+
+	/**
+	 * Returns the kept solutions.
+	 *
+	 * @return The kept {@link Solution} instances, in no particular order.
+	 */
+	public Solution[] toArray() {
+		Solution[] array = new Solution[size];
+		System.arraycopy(solutions, 0, array, 0, size);
+		return array;
+	}
+}
@@ -153,14 +153,12 @@ public class SolutionList {
 			String[] tokens = line.split("#")[1].split("\t");
 			Solution solution = null;
 			for(String token : tokens) {
-				for(Vertex v : model.vertices) {
-					if(v.gene.symbol.equals(token)) {
-						if(solution == null) {
-							solution = new Solution(v, model);
-						}else {
-							solution = Solution.merge(solution, new Solution(v, model), model);
-						}
-						break;
+				Vertex v = Graph.getVertexBySymbol(model, token);
+				if(v != null) {
+					if(solution == null) {
+						solution = new Solution(v, model);
+					}else {
+						solution = Solution.merge(solution, new Solution(v, model), model);
 					}
 				}
 			}
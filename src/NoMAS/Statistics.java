@@ -77,39 +77,33 @@ public class Statistics {
 			return 1;
 		}
 		final int[] counts = new int[N];
-		Thread[] threads = new Thread[N];
-		for(int i=0; i<N; i++) {
-			final int index = i;
-			threads[i] = new Thread(new Runnable() {
-				public void run() {
-					Random rng = new Random();
-					int local_samples = Utils.getJobCount(N, index, samples);
-					int m = model.m;
-					double[] w = Arrays.copyOf(model.w, m);
-					int count = 0;
-					for(int t=0; t<local_samples; t++) {
-						double sample_logrank = 0.0;
-						for(int j=0; j<m1; j++) {
-							int ri = rng.nextInt(m-j);
-							sample_logrank += w[ri];
-							double tmp = w[m-j-1];
-							w[m-j-1] = w[ri];
-							w[ri] = tmp;
-						}
-						if(logrank > 0) {
-							if(sample_logrank >= logrank) {
-								count++;
-							}
-						}else if(sample_logrank <= logrank) {
+		WorkerPool.shared().run(N, new WorkerPool.Task() {
+			public void run(int index) {
+				Random rng = new Random();
+				int local_samples = Utils.getJobCount(N, index, samples);
+				int m = model.m;
+				double[] w = Arrays.copyOf(model.w, m);
+				int count = 0;
+				for(int t=0; t<local_samples; t++) {
+					double sample_logrank = 0.0;
+					for(int j=0; j<m1; j++) {
+						int ri = rng.nextInt(m-j);
+						sample_logrank += w[ri];
+						double tmp = w[m-j-1];
+						w[m-j-1] = w[ri];
+						w[ri] = tmp;
+					}
+					if(logrank > 0) {
+						if(sample_logrank >= logrank) {
 							count++;
 						}
+					}else if(sample_logrank <= logrank) {
+						count++;
 					}
-					counts[index] = count;
 				}
-			});
-			threads[i].start();
-		}
-		Utils.join(threads);
+				counts[index] = count;
+			}
+		});
 		int total_count = 0;
 		for(int count : counts) {
 			total_count += count;
@@ -0,0 +1,195 @@
+package NoMAS;
+import java.nio.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Hash table mapping symbols (e.g. gene symbols or patient ids) to integer values. Symbols are stored as UTF-8 bytes,
+ * so that they can be looked up directly from a byte range of a {@link ByteBuffer} (see {@link LineTokenizer}) without decoding a {@link String}.
+ * The table uses open addressing with linear probing. Lookups are thread safe as long as no symbol is inserted concurrently.
+ *
+ * @author Federico Altieri
+ * @author Tommy V. Hansen
+ * @author Fabio Vandin
+ *
+ */
+public class SymbolTable {
+	/**
+	 * Symbols stored in the slots of the table, null for empty slots.
+	 */
+	private byte[][] keys;
+	/**
+	 * Hashes of the symbols stored in the slots of the table.
+	 */
+	private int[] hashes;
+	/**
+	 * Values associated with the symbols stored in the slots of the table.
+	 */
+	private int[] values;
+	/**
+	 * Number of symbols in the table.
+	 */
+	private int size;
+
+	/**
+	 * Constructs an empty table sized for the expected number of symbols.
+	 *
+	 * @param expected The expected number of symbols.
+	 */
+	public SymbolTable(int expected) {
+		int capacity = 16;
+		while(capacity < 2*expected) {
+			capacity <<= 1;
+		}
+		keys = new byte[capacity][];
+		hashes = new int[capacity];
+		values = new int[capacity];
+	}
+
+	/**
+	 * Returns the number of symbols in the table.
+	 *
+	 * @return The number of symbols.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Associates a value with a symbol, unless the symbol is already in the table.
+	 *
+	 * @param symbol The symbol.
+	 * @param value The value.
+	 * @return The value associated with the symbol after the operation.
+	 */
+	public int putIfAbsent(String symbol, int value) {
+		byte[] key = symbol.getBytes(StandardCharsets.UTF_8);
+		return putIfAbsent(ByteBuffer.wrap(key), 0, key.length, value);
+	}
+
+	/**
+	 * Associates a value with the symbol held in a byte range of a buffer, unless the symbol is already in the table.
+	 *
+	 * @param buffer The {@link ByteBuffer} holding the symbol.
+	 * @param start Start (inclusive) of the symbol.
+	 * @param end End (exclusive) of the symbol.
+	 * @param value The value.
+	 * @return The value associated with the symbol after the operation.
+	 */
+	public int putIfAbsent(ByteBuffer buffer, int start, int end, int value) {
+		int hash = hash(buffer, start, end);
+		int mask = keys.length-1;
+		int slot = hash & mask;
+		while(keys[slot] != null) {
+			if(hashes[slot] == hash && matches(keys[slot], buffer, start, end)) {
+				return values[slot];
+			}
+			slot = (slot+1) & mask;
+		}
+		byte[] key = new byte[end-start];
+		for(int i=start; i<end; i++) {
+			key[i-start] = buffer.get(i);
+		}
+		keys[slot] = key;
+		hashes[slot] = hash;
+		values[slot] = value;
+		size++;
+		if(2*size > keys.length) {
+			grow();
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the value associated with a symbol.
+	 *
+	 * @param symbol The symbol.
+	 * @return The value, or -1 if the symbol is not in the table.
+	 */
+	public int get(String symbol) {
+		byte[] key = symbol.getBytes(StandardCharsets.UTF_8);
+		return get(ByteBuffer.wrap(key), 0, key.length);
+	}
+
+	/**
+	 * Returns the value associated with the symbol held in a byte range of a buffer.
+	 *
+	 * @param buffer The {@link ByteBuffer} holding the symbol.
+	 * @param start Start (inclusive) of the symbol.
+	 * @param end End (exclusive) of the symbol.
+	 * @return The value, or -1 if the symbol is not in the table.
+	 */
+	public int get(ByteBuffer buffer, int start, int end) {
+		int hash = hash(buffer, start, end);
+		int mask = keys.length-1;
+		int slot = hash & mask;
+		while(keys[slot] != null) {
+			if(hashes[slot] == hash && matches(keys[slot], buffer, start, end)) {
+				return values[slot];
+			}
+			slot = (slot+1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Doubles the capacity of the table and re-inserts all symbols.
+	 */
+	private void grow() {
+		byte[][] old_keys = keys;
+		int[] old_hashes = hashes;
+		int[] old_values = values;
+		keys = new byte[2*old_keys.length][];
+		hashes = new int[keys.length];
+		values = new int[keys.length];
+		int mask = keys.length-1;
+		for(int i=0; i<old_keys.length; i++) {
+			if(old_keys[i] != null) {
+				int slot = old_hashes[i] & mask;
+				while(keys[slot] != null) {
+					slot = (slot+1) & mask;
+				}
+				keys[slot] = old_keys[i];
+				hashes[slot] = old_hashes[i];
+				values[slot] = old_values[i];
+			}
+		}
+	}
+
+	/**
+	 * Computes the FNV-1a hash of a byte range, with a final mixing step to spread the low bits used for addressing.
+	 *
+	 * @param buffer The {@link ByteBuffer} holding the bytes.
+	 * @param start Start (inclusive) of the range.
+	 * @param end End (exclusive) of the range.
+	 * @return The hash.
+	 */
+	private static int hash(ByteBuffer buffer, int start, int end) {
+		int h = 0x811c9dc5;
+		for(int i=start; i<end; i++) {
+			h ^= buffer.get(i);
+			h *= 0x01000193;
+		}
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Compares a stored symbol with a byte range.
+	 *
+	 * @param key The stored symbol.
+	 * @param buffer The {@link ByteBuffer} holding the byte range.
+	 * @param start Start (inclusive) of the range.
+	 * @param end End (exclusive) of the range.
+	 * @return true if the symbol and the range hold the same bytes.
+	 */
+	private static boolean matches(byte[] key, ByteBuffer buffer, int start, int end) {
+		if(key.length != end-start) {
+			return false;
+		}
+		for(int i=0; i<key.length; i++) {
+			if(key[i] != buffer.get(start+i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -96,34 +96,14 @@ public class Utils {
 	}
 	
     /**
-	 * Synchronizes a number of threads as specified by the barrier.
+	 * Synchronizes the workers of a task at the end of a layer (see {@link WorkerPool#run(int, Phaser, WorkerPool.Task)}).
 	 *
-	 * @param barrier {@link CyclicBarrier} to use in synchronization.
+	 * @param phaser {@link Phaser} to use in synchronization, with a party for each worker.
+	 * @throws CancellationException if the phaser was terminated because a worker failed.
 	 */
-	public static void synchronize(CyclicBarrier barrier) {
-		try {
-			barrier.await();
-		}catch(InterruptedException ex) {
-			System.err.println("Interruption during thread synchronization.");
-			System.exit(1);
-		}catch(BrokenBarrierException ex) {
-			System.err.println("Broken barrier during thread synchronization.");
-			System.exit(1);
-		}
-	}
-
-     /**
-	 * Waits on the given list of {@link Thread} instances to join.
-	 *
-	 * @param threads The list of {@link Thread} instances to join.
-	 */
-	public static void join(Thread[] threads) {
-		for(int i=0; i<threads.length; i++) {
-			try {
-				threads[i].join();
-			}catch(Exception e) {
-				System.err.println("Join failure.");
-			}
+	public static void synchronize(Phaser phaser) {
+		if(phaser.arriveAndAwaitAdvance() < 0) {
+			throw new CancellationException("Another worker failed during thread synchronization.");
 		}
 	}
 
@@ -163,7 +143,7 @@ public class Utils {
 	}
 	
 	/**
-	 * Instantiates a {@link BufferedReader} to handle a certain file. Writes an error on the standard error if fails.
+	 * Instantiates a {@link BufferedReader} to handle a certain file, inflating it if gzip compressed (see {@link Gzip}). Writes an error on the standard error if fails.
 	 * 
 	 * @param filename Path to the file to handle.
 	 * @return {@link BufferedReader} instance that handles the file.
@@ -171,8 +151,12 @@ public class Utils {
 	public static BufferedReader bufferedReader(String filename) {
 		BufferedReader reader = null;
 		try{
-			reader = new BufferedReader(new FileReader(filename));
-		}catch(FileNotFoundException e) {
+			if(Gzip.isCompressed(filename)) {
+				reader = new BufferedReader(new InputStreamReader(Gzip.open(filename)));
+			}else {
+				reader = new BufferedReader(new FileReader(filename));
+			}
+		}catch(IOException e) {
 			System.err.println("Failed to read file: "+filename);
 		}
 		return reader;
@@ -242,4 +226,17 @@ public class Utils {
 		}
 		return -1;
 	}
+	
+	/**
+	 * Mixes a value into a FNV-1a style hash.
+	 * 
+	 * @param h The hash.
+	 * @param value The value.
+	 * @return The updated hash.
+	 */
+	public static long mix(long h, long value) {
+		h ^= value;
+		h *= 0x100000001b3L;
+		return h;
+	}
 }
\ No newline at end of file
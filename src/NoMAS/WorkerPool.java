@@ -0,0 +1,140 @@
+package NoMAS;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Pool of worker threads shared by the whole process, on which every parallel part of the program runs, so that threads are created once instead of at every call.
+ * A task is run by N workers at the same time, each with its own index, and the caller waits for all of them: since the workers of a task may wait for each other
+ * (see {@link Utils#synchronize(Phaser)}), a worker is never queued behind another task, and a new thread is only created when no idle one is left. Idle threads are kept for a while and are daemons.
+ * If a worker fails, the {@link Phaser} of the task is terminated, so that the other workers stop at their next synchronization, and the failure is thrown to the caller.
+ *
+ * @author Federico Altieri
+ * @author Tommy V. Hansen
+ * @author Fabio Vandin
+ *
+ */
+public class WorkerPool {
+	/**
+	 * Work done by each worker of a parallel task.
+	 */
+	public interface Task {
+		/**
+		 * Runs the part of the task of a worker.
+		 *
+		 * @param index The index of the worker, from 0 to N-1.
+		 */
+		public void run(int index);
+	}
+
+	/**
+	 * Seconds an idle thread is kept before it terminates.
+	 */
+	public static final long KEEP_ALIVE = 60;
+	/**
+	 * Pool of the process.
+	 */
+	private static final WorkerPool shared = new WorkerPool();
+	/**
+	 * Executor of the worker threads.
+	 */
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * Constructor that initializes a pool with no threads.
+	 */
+	public WorkerPool() {
+		final AtomicInteger count = new AtomicInteger(0);
+		executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, KEEP_ALIVE, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "NoMAS-worker-"+count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Returns the pool of the process.
+	 *
+	 * @return The shared {@link WorkerPool} instance.
+	 */
+	public static WorkerPool shared() {
+		return shared;
+	}
+
+	/**
+	 * Runs a task on N workers and waits for all of them.
+	 *
+	 * @param N Number of workers.
+	 * @param task The {@link Task} to run.
+	 */
+	public void run(int N, Task task) {
+		run(N, null, task);
+	}
+
+	/**
+	 * Runs a task on N workers that synchronize on a {@link Phaser}, and waits for all of them. The caller runs the worker of index 0.
+	 *
+	 * @param N Number of workers, which should be the parties registered to the phaser.
+	 * @param phaser The {@link Phaser} the workers synchronize on, terminated if one of them fails, or null.
+	 * @param task The {@link Task} to run.
+	 */
+	public void run(int N, final Phaser phaser, final Task task) {
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Future<?>[] futures = new Future<?>[N];
+		for(int i=1; i<N; i++) {
+			final int index = i;
+			futures[i] = executor.submit(new Runnable() {
+				public void run() {
+					work(task, index, phaser, failure);
+				}
+			});
+		}
+		work(task, 0, phaser, failure);
+		for(int i=1; i<N; i++) {
+			try {
+				futures[i].get();
+			}catch(InterruptedException e) {
+				for(Future<?> future : futures) {
+					if(future != null) {
+						future.cancel(true);
+					}
+				}
+				if(phaser != null) {
+					phaser.forceTermination();
+				}
+				Thread.currentThread().interrupt();
+				throw new CancellationException("Interrupted while waiting for the workers");
+			}catch(ExecutionException e) {
+				// Never thrown, failures are recorded by the workers
+			}
+		}
+		Throwable cause = failure.get();
+		if(cause instanceof RuntimeException) {
+			throw (RuntimeException)cause;
+		}
+		if(cause instanceof Error) {
+			throw (Error)cause;
+		}
+	}
+
+	/**
+	 * Runs the part of a task of a worker, recording its failure and terminating the phaser of the task if it fails.
+	 * Since the failure is recorded before the phaser is terminated, the workers stopped by the termination never hide it.
+	 *
+	 * @param task The {@link Task} to run.
+	 * @param index The index of the worker.
+	 * @param phaser The {@link Phaser} of the task, or null.
+	 * @param failure The first failure of the workers of the task.
+	 */
+	private static void work(Task task, int index, Phaser phaser, AtomicReference<Throwable> failure) {
+		try {
+			task.run(index);
+		}catch(Throwable t) {
+			failure.compareAndSet(null, t);
+			if(phaser != null) {
+				phaser.forceTermination();
+			}
+		}
+	}
+}